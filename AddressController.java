@@ -3,27 +3,86 @@ import com.fasterxml.jackson.annotation.JsonView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.MessageSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.validation.Valid;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @RestController
 @RequestMapping("/api/public/address")
+@ConditionalOnProperty(name = "address.api.reactive", havingValue = "false", matchIfMissing = true)
 public class AddressController {
 
+    @Autowired
+    private CustomerAddressService customerAddressService;
 
-    @JsonView(View.PUBLIC.class)
+    @Autowired
+    @Qualifier("addressExecutor")
+    private ExecutorService addressExecutor;
+
+    @Autowired
+    private AddressDeadlines deadlines;
+
+    @Autowired
+    private AddressLocationCheck locationCheck;
+
+    @Autowired
+    private AddressControllerAdvice advice;
+
+    /**
+     * the body is the cached {@link View.PUBLIC} json of the address list, written as is.
+     * with since (-1 to start) the body is an {@link AddressDelta} of the changes after that version instead.
+     * concurrent requests of a customer share one load, a cache hit costs a read of its stored version only
+     */
     @RequestMapping(method = RequestMethod.GET)
-    public CompletableFuture<ResultObject> getAddresses(UserAuthentication authentication) {
-        return CompletableFuture.supplyAsync(() -> {
-            Customer customer = customerService.loadCustomer(getUserIdOrFail(authentication));
+    public CompletableFuture<ResponseEntity<byte[]>> getAddresses(UserAuthentication authentication,
+                                                                 @RequestParam(value = "since", required = false) String since,
+                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String customerId = getUserIdOrFail(authentication);
+        if (since != null) {
+            return customerAddressService.addressesSince(customerId, since)
+                    .thenApply(body -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(body));
+        }
 
-            return new ResultObject(customer.getAddresses());
+        return customerAddressService.loadAddresses(customerId).thenApply(addresses -> {
+            if (addresses.etagMatches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(addresses.getEtag()).<byte[]>build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(addresses.getEtag())
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .body(customerAddressService.publicJson(addresses));
         });
     }
 
+    @JsonView(View.PUBLIC.class)
+    @RequestMapping(method = RequestMethod.POST)
+    public CompletableFuture<ResponseEntity<ResultObject>> addAddress(UserAuthentication authentication,
+                                                                     @RequestParam(value = "primary", required = false, defaultValue = "false") boolean primary,
+                                                                     @JsonView(View.CUSTOMER.REQUEST_BODY.ADDRESS.class) @Valid @RequestBody Address address) {
+        String customerId = getUserIdOrFail(authentication);
+        locationCheck.check(address);
+
+        return deadlines.supplyAsync(AddressDeadlines.Endpoint.POST, () -> {
+            Address added = customerAddressService.addAddress(customerId, address, primary);
+            if (added == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new ResultObject(advice.message("error.service", "خطای سرویس"), null));
+            }
 
+            return ResponseEntity.ok(new ResultObject(advice.message("address.added", "آدرس جدید اضافه شد"), added.getId()));
+        }, addressExecutor);
+    }
 }
@@ -0,0 +1,45 @@
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * error responses shared by {@link AddressController} and {@link ReactiveAddressController}, whichever is enabled.
+ * a deadline passed is answered with 504, a full address executor with 503 and an inconsistent location with 400.
+ */
+@RestControllerAdvice(assignableTypes = {AddressController.class, ReactiveAddressController.class})
+public class AddressControllerAdvice {
+
+    @Autowired
+    private MessageSource messageSource;
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<ResultObject> deadlineExceeded(TimeoutException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(new ResultObject(message("error.service.timeout", "زمان پاسخ سرویس به پایان رسید"), null));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ResultObject> executorFull(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ResultObject(message("error.service.busy", "سرویس موقتا در دسترس نیست"), null));
+    }
+
+    @ExceptionHandler(AddressLocationException.class)
+    public ResponseEntity<ResultObject> badLocation(AddressLocationException e) {
+        String message = e.getResult() == LocationBounds.Result.SWAPPED
+                ? message("address.location.swapped", "طول و عرض جغرافیایی جابجا وارد شده است")
+                : message("address.location.far", "موقعیت جغرافیایی با شهر آدرس مطابقت ندارد");
+        return ResponseEntity.badRequest().body(new ResultObject(message, null));
+    }
+
+    public String message(String code, String defaultMessage) {
+        return messageSource.getMessage(code, null, defaultMessage, LocaleContextHolder.getLocale());
+    }
+}
@@ -0,0 +1,138 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * api path: /api/public/address
+ * method: GET
+ * conditional requests
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+public class AddressControllerETagTest {
+
+    private static final String API_PATH = "/api/public/address";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private TokenAuthenticationService tokenAuthenticationService;
+
+    @MockBean
+    private CustomerAddressService customerAddressService;
+
+    @After
+    public void tearDown() throws Exception {
+        verifyNoMoreInteractions(customerAddressService);
+    }
+
+    @Test
+    public void etag() throws Exception {
+        Customer customer = CustomerTestHelper.createRandomValidCustomer();
+        customer.setAddresses(new ArrayList<>());
+        customer.getAddresses().add(AddressTestHelper.createRandomValidAddress());
+
+        //mock security
+        given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
+
+        CustomerAddresses addresses = new CustomerAddresses(customer.getId(), customer.getAddresses(), "\"v1\"");
+        given(customerAddressService.loadAddresses(eq(customer.getId()))).willReturn(CompletableFuture.completedFuture(addresses));
+        given(customerAddressService.publicJson(eq(addresses)))
+                .willReturn(objectMapper.writerWithView(View.PUBLIC.class).writeValueAsBytes(new ResultObject(customer.getAddresses())));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_PATH)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(jsonPath("data[0].id").value(customer.getAddresses().get(0).getId()));
+
+        verify(customerAddressService, times(1)).loadAddresses(eq(customer.getId()));
+        verify(customerAddressService, times(1)).publicJson(eq(addresses));
+    }
+
+    @Test
+    public void notModified() throws Exception {
+        Customer customer = CustomerTestHelper.createRandomValidCustomer();
+        customer.setAddresses(new ArrayList<>());
+        customer.getAddresses().add(AddressTestHelper.createRandomValidAddress());
+
+        //mock security
+        given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
+
+        given(customerAddressService.loadAddresses(eq(customer.getId())))
+                .willReturn(CompletableFuture.completedFuture(new CustomerAddresses(customer.getId(), customer.getAddresses(), "\"v1\"")));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v0\", W/\"v1\"")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(content().string(""));
+
+        verify(customerAddressService, times(1)).loadAddresses(eq(customer.getId()));
+    }
+
+    @Test
+    public void modified() throws Exception {
+        Customer customer = CustomerTestHelper.createRandomValidCustomer();
+        customer.setAddresses(new ArrayList<>());
+
+        //mock security
+        given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
+
+        CustomerAddresses addresses = new CustomerAddresses(customer.getId(), customer.getAddresses(), "\"v2\"");
+        given(customerAddressService.loadAddresses(eq(customer.getId()))).willReturn(CompletableFuture.completedFuture(addresses));
+        given(customerAddressService.publicJson(eq(addresses)))
+                .willReturn(objectMapper.writerWithView(View.PUBLIC.class).writeValueAsBytes(new ResultObject(customer.getAddresses())));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\"")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v2\""))
+                .andExpect(jsonPath("data").isEmpty());
+
+        verify(customerAddressService, times(1)).loadAddresses(eq(customer.getId()));
+        verify(customerAddressService, times(1)).publicJson(eq(addresses));
+    }
+}
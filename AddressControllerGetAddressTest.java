@@ -43,6 +43,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @AutoConfigureMockMvc
 public class AddressCtrlV3AddAddressTest {
 
+    @MockBean
+    private CustomerAddressService customerAddressService;
+
+    @MockBean
+    private LocationBounds locationBounds;
+
     @After
     public void tearDown() throws Exception {
         nothingElseMatters();
@@ -62,7 +68,7 @@ public class AddressCtrlV3AddAddressTest {
         //mock security
         given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
 
-        given(customerService.addAddress(eq(customer.getId()), any(Address.class))).willReturn(address);
+        given(customerAddressService.addAddress(eq(customer.getId()), any(Address.class), eq(true))).willReturn(address);
 
         MvcResult mvcResult = mockMvc.perform(post(API_PATH)
                 .content(objectMapper.writerWithView(View.CUSTOMER.REQUEST_BODY.ADDRESS.class).writeValueAsString(address))
@@ -110,9 +116,7 @@ public class AddressCtrlV3AddAddressTest {
                 ));
 
         verify(tokenAuthenticationService, times(2)).getAuthentication(any());
-        verify(customerService, times(1)).addAddress(eq(customer.getId()), any(Address.class));
-        verify(customerService, times(1)).confirmAddress(eq(customer.getId()), eq(address.getId()));
-        verify(customerService, times(1)).changePrimaryAddress(eq(customer.getId()), eq(address.getId()));
+        verify(customerAddressService, times(1)).addAddress(eq(customer.getId()), any(Address.class), eq(true));
     }
 
     @Test
@@ -123,7 +127,7 @@ public class AddressCtrlV3AddAddressTest {
         //mock security
         given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
 
-        given(customerService.addAddress(eq(customer.getId()), any(Address.class))).willReturn(address);
+        given(customerAddressService.addAddress(eq(customer.getId()), any(Address.class), eq(false))).willReturn(address);
 
         MvcResult mvcResult = mockMvc.perform(post(API_PATH)
                 .content(objectMapper.writeValueAsString(address))
@@ -140,8 +144,7 @@ public class AddressCtrlV3AddAddressTest {
                 .andExpect(jsonPath("data").value(address.getId()));
 
         verify(tokenAuthenticationService, times(2)).getAuthentication(any());
-        verify(customerService, times(1)).addAddress(eq(customer.getId()), any(Address.class));
-        verify(customerService, times(1)).confirmAddress(eq(customer.getId()), eq(address.getId()));
+        verify(customerAddressService, times(1)).addAddress(eq(customer.getId()), any(Address.class), eq(false));
     }
 
     @Test
@@ -152,7 +155,7 @@ public class AddressCtrlV3AddAddressTest {
         //mock security
         given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
 
-        given(customerService.addAddress(eq(customer.getId()), any(Address.class))).willReturn(null);
+        given(customerAddressService.addAddress(eq(customer.getId()), any(Address.class), eq(false))).willReturn(null);
 
         MvcResult mvcResult = mockMvc.perform(post(API_PATH)
                 .content(objectMapper.writeValueAsString(address))
@@ -170,7 +173,7 @@ public class AddressCtrlV3AddAddressTest {
 
         verify(tokenAuthenticationService, times(2)).getAuthentication(any());
 
-        verify(customerService, times(1)).addAddress(eq(customer.getId()), any(Address.class));
+        verify(customerAddressService, times(1)).addAddress(eq(customer.getId()), any(Address.class), eq(false));
     }
 
     @Test
@@ -212,6 +215,40 @@ public class AddressCtrlV3AddAddressTest {
         verify(tokenAuthenticationService, times(badRequests.size() + 1)).getAuthentication(any());
     }
 
+    @Test
+    public void swappedLocation() throws Exception {
+        badLocation(LocationBounds.Result.SWAPPED, "طول و عرض جغرافیایی جابجا وارد شده است");
+    }
+
+    @Test
+    public void locationFarFromCity() throws Exception {
+        badLocation(LocationBounds.Result.OUT_OF_BOUNDS, "موقعیت جغرافیایی با شهر آدرس مطابقت ندارد");
+    }
+
+    private void badLocation(LocationBounds.Result result, String message) throws Exception {
+        Customer customer = CustomerTestHelper.createRandomValidCustomer();
+        Address address = AddressTestHelper.createRandomValidAddress();
+
+        //mock security
+        given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
+
+        given(locationBounds.check(any(), any(), any())).willReturn(result);
+
+        //rejected on the request thread, nothing is written
+        mockMvc.perform(post(API_PATH)
+                .content(objectMapper.writeValueAsString(address))
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("message").value(message))
+                .andExpect(jsonPath("data").isEmpty());
+
+        verify(tokenAuthenticationService, times(1)).getAuthentication(any());
+        verify(locationBounds, times(1)).check(eq(address.getProvince()), eq(address.getCity()), any(LatLng.class));
+        verify(customerAddressService, never()).addAddress(any(), any(Address.class), anyBoolean());
+    }
+
     @Test
     public void forbidden() throws Exception {
         Customer customer = CustomerTestHelper.createRandomValidCustomer();
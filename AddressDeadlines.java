@@ -0,0 +1,132 @@
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * per endpoint deadlines of the async address work, well below the servlet async timeout.
+ * when a deadline passes the future fails with {@link TimeoutException} (answered with 504) and the work is cancelled:
+ * a task still queued never starts (it is removed from the queue of a {@link ThreadPoolExecutor}, so it doesn't hold
+ * a slot of the bounded queue until a worker reaches it), a running GET task is interrupted.
+ * a running POST task is left to finish, interrupting a write would leave the client unable to tell whether the address was added.
+ * <ul>
+ * <li>address.deadline.timeouts, futures failed by their deadline per endpoint</li>
+ * <li>address.deadline.cancelled, work cancelled by a deadline before completing per endpoint</li>
+ * </ul>
+ */
+@Component
+public class AddressDeadlines {
+
+    public enum Endpoint {
+        GET, POST
+    }
+
+    private final Map<Endpoint, Duration> deadlines = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Counter> timeouts = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Counter> cancelled = new EnumMap<>(Endpoint.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "address-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AddressDeadlines(MeterRegistry meterRegistry,
+                            @Value("${address.deadline.get:PT2S}") Duration get,
+                            @Value("${address.deadline.post:PT5S}") Duration post) {
+        deadlines.put(Endpoint.GET, get);
+        deadlines.put(Endpoint.POST, post);
+        for (Endpoint endpoint : Endpoint.values()) {
+            String tag = endpoint.name().toLowerCase();
+            timeouts.put(endpoint, Counter.builder("address.deadline.timeouts")
+                    .description("address requests failed by their deadline")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry));
+            cancelled.put(endpoint, Counter.builder("address.deadline.cancelled")
+                    .description("address work cancelled by a deadline")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * runs task on executor within the deadline of endpoint
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if executor is full
+     */
+    public <T> CompletableFuture<T> supplyAsync(Endpoint endpoint, Supplier<T> task, Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> work = new FutureTask<>(() -> {
+            if (result.isDone()) {
+                //deadline passed while queued
+                cancelled.get(endpoint).increment();
+                return;
+            }
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, null);
+        executor.execute(work);
+        return deadline(endpoint, result, work, executor);
+    }
+
+    /**
+     * @param work already started, cancelled when the deadline passes (e.g. a reactive load, cancelling it disposes it)
+     */
+    public <T> CompletableFuture<T> within(Endpoint endpoint, CompletableFuture<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        work.whenComplete((value, e) -> {
+            if (e == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(e);
+            }
+        });
+        return deadline(endpoint, result, work, null);
+    }
+
+    /**
+     * @param executor work was queued on, null if it isn't a queued task
+     */
+    private <T> CompletableFuture<T> deadline(Endpoint endpoint, CompletableFuture<T> result, Future<?> work, Executor executor) {
+        Duration deadline = deadlines.get(endpoint);
+        ScheduledFuture<?> timer = scheduler.schedule(() -> {
+            if (result.completeExceptionally(new TimeoutException(endpoint + " /api/public/address exceeded its deadline of " + deadline))) {
+                timeouts.get(endpoint).increment();
+                if (executor instanceof ThreadPoolExecutor && ((ThreadPoolExecutor) executor).remove((Runnable) work)) {
+                    //still queued, it will never start
+                    work.cancel(false);
+                    cancelled.get(endpoint).increment();
+                } else if (endpoint == Endpoint.GET && work.cancel(true)) {
+                    cancelled.get(endpoint).increment();
+                }
+            }
+        }, deadline.toNanos(), TimeUnit.NANOSECONDS);
+        result.whenComplete((value, e) -> timer.cancel(false));
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,163 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AddressDeadlinesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AddressDeadlines deadlines;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        deadlines = new AddressDeadlines(meterRegistry, Duration.ofMillis(100), Duration.ofMillis(100));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        deadlines.shutdown();
+    }
+
+    @Test
+    public void withinDeadline() throws Exception {
+        CompletableFuture<String> result = deadlines.supplyAsync(AddressDeadlines.Endpoint.GET, () -> "ok", executor);
+
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("ok");
+        Thread.sleep(200);
+        assertThat(count("address.deadline.timeouts", "get")).isZero();
+    }
+
+    @Test
+    public void getIsInterrupted() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> result = deadlines.supplyAsync(AddressDeadlines.Endpoint.GET, () -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        }, executor);
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(count("address.deadline.timeouts", "get")).isEqualTo(1);
+        assertThat(count("address.deadline.cancelled", "get")).isEqualTo(1);
+    }
+
+    @Test
+    public void queuedPostNeverStarts() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        //the only worker is busy past the deadline of the second task
+        executor.execute(() -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AtomicBoolean started = new AtomicBoolean();
+        CompletableFuture<String> result = deadlines.supplyAsync(AddressDeadlines.Endpoint.POST, () -> {
+            started.set(true);
+            return "added";
+        }, executor);
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(started.get()).isFalse();
+        assertThat(count("address.deadline.timeouts", "post")).isEqualTo(1);
+        assertThat(count("address.deadline.cancelled", "post")).isEqualTo(1);
+    }
+
+    @Test
+    public void expiredWorkLeavesTheQueue() throws Exception {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            //the only worker is busy past the deadline of the queued task
+            pool.execute(() -> {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            CompletableFuture<String> result = deadlines.supplyAsync(AddressDeadlines.Endpoint.GET, () -> "late", pool);
+            assertThat(pool.getQueue()).hasSize(1);
+
+            assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+
+            //the slot is free for the next request while the worker is still busy
+            assertThat(pool.getQueue()).isEmpty();
+            CompletableFuture<String> next = deadlines.supplyAsync(AddressDeadlines.Endpoint.POST, () -> "added", pool);
+            release.countDown();
+            assertThat(next.get(1, TimeUnit.SECONDS)).isEqualTo("added");
+            assertThat(count("address.deadline.cancelled", "get")).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void runningPostIsNotInterrupted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean completed = new AtomicBoolean();
+        CompletableFuture<String> result = deadlines.supplyAsync(AddressDeadlines.Endpoint.POST, () -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+                completed.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "added";
+        }, executor);
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(completed.get()).isTrue();
+        assertThat(count("address.deadline.cancelled", "post")).isZero();
+    }
+
+    @Test
+    public void withinCancelsWork() throws Exception {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        CompletableFuture<String> result = deadlines.within(AddressDeadlines.Endpoint.GET, work);
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(work.isCancelled()).isTrue();
+    }
+
+    private double count(String name, String endpoint) {
+        return meterRegistry.get(name).tag("endpoint", endpoint).counter().count();
+    }
+}
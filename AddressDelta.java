@@ -0,0 +1,52 @@
+import com.fasterxml.jackson.annotation.JsonView;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * changes of a customer's address list since a version, see {@link CustomerAddressService#addressesSince}.
+ * when full is true, addresses is the whole list and the client must replace what it has.
+ */
+public final class AddressDelta {
+
+    private final String version;
+    private final boolean full;
+    private final List<Address> addresses;
+    private final Set<String> removed;
+
+    public AddressDelta(String version, boolean full, List<Address> addresses, Set<String> removed) {
+        this.version = version;
+        this.full = full;
+        this.addresses = addresses;
+        this.removed = removed;
+    }
+
+    /**
+     * pass it as since on the next request
+     */
+    @JsonView(View.PUBLIC.class)
+    public String getVersion() {
+        return version;
+    }
+
+    @JsonView(View.PUBLIC.class)
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return added or changed addresses, or every address if full
+     */
+    @JsonView(View.PUBLIC.class)
+    public List<Address> getAddresses() {
+        return addresses;
+    }
+
+    /**
+     * @return ids of removed addresses, empty if full
+     */
+    @JsonView(View.PUBLIC.class)
+    public Set<String> getRemoved() {
+        return removed;
+    }
+}
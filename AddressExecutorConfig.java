@@ -0,0 +1,76 @@
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * executor of the blocking work behind {@link AddressController} async endpoints, so it never runs on the common pool.
+ * <p>
+ * address.executor.mode=BOUNDED (default) uses a fixed size pool with a bounded queue,
+ * address.executor.mode=VIRTUAL runs every task on its own virtual thread (needs java 21) limited by max-concurrency,
+ * it never queues so it has no address.executor.queued gauge.
+ * in both modes a full executor rejects the task, which the controller answers with 503.
+ */
+@Configuration
+public class AddressExecutorConfig {
+
+    public enum Mode {
+        BOUNDED, VIRTUAL
+    }
+
+    @Value("${address.executor.mode:BOUNDED}")
+    private Mode mode;
+
+    @Value("${address.executor.pool-size:32}")
+    private int poolSize;
+
+    @Value("${address.executor.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${address.executor.max-concurrency:1000}")
+    private int maxConcurrency;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService addressExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("address.executor.rejected")
+                .description("address tasks rejected because the executor was full")
+                .register(meterRegistry);
+
+        if (mode == Mode.VIRTUAL) {
+            VirtualThreadExecutor executor = new VirtualThreadExecutor(maxConcurrency, rejected);
+            Gauge.builder("address.executor.active", executor, VirtualThreadExecutor::getActiveCount).register(meterRegistry);
+            return executor;
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreadFactory("address-"),
+                (r, e) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("address executor is full");
+                });
+        executor.allowCoreThreadTimeOut(true);
+        Gauge.builder("address.executor.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("address.executor.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+        return executor;
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
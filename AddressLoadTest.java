@@ -0,0 +1,254 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * api path: /api/public/address
+ * method: GET and POST
+ * concurrent load against in-process stand-ins of the database and token verification, each one sleeping a fixed latency.
+ * reports throughput and p50/p99/p999 so changes of the async execution model can be compared under contention.
+ * the stand-ins are stub only mocks, they don't record invocations, so memory stays flat however many requests run.
+ * <p>
+ * skipped unless -Daddress.load-test=true, other knobs (system properties, defaults in brackets):
+ * address.load-test.threads [64], address.load-test.requests [20000], address.load-test.customers [1000],
+ * address.load-test.post-percent [10], address.load-test.db-latency-ms [5], address.load-test.auth-latency-ms [1]
+ * <pre>
+ * mvn test -Dtest=AddressLoadTest -Daddress.load-test=true -Daddress.load-test.threads=256 -Daddress.executor.mode=VIRTUAL
+ * </pre>
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+public class AddressLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressLoadTest.class);
+
+    private static final String API_PATH = "/api/public/address";
+
+    private static final int THREADS = Integer.getInteger("address.load-test.threads", 64);
+    private static final int REQUESTS = Integer.getInteger("address.load-test.requests", 20000);
+    private static final int CUSTOMERS = Integer.getInteger("address.load-test.customers", 1000);
+    private static final int POST_PERCENT = Integer.getInteger("address.load-test.post-percent", 10);
+    private static final long DB_LATENCY_MS = Long.getLong("address.load-test.db-latency-ms", 5L);
+    private static final long AUTH_LATENCY_MS = Long.getLong("address.load-test.auth-latency-ms", 1L);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TokenAuthenticationService tokenAuthenticationService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerAddressRepository customerAddressRepository;
+
+    private final List<Customer> customers = new ArrayList<>();
+    private final Map<String, Customer> customersById = new HashMap<>();
+
+    private String body;
+
+    private long elapsedNanos;
+
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    private final AtomicInteger timedOut = new AtomicInteger();
+
+    @TestConfiguration
+    static class StandIns {
+
+        @Bean
+        @Primary
+        TokenAuthenticationService stubTokenAuthenticationService() {
+            return mock(TokenAuthenticationService.class, withSettings().stubOnly());
+        }
+
+        @Bean
+        @Primary
+        CustomerService stubCustomerService() {
+            return mock(CustomerService.class, withSettings().stubOnly());
+        }
+
+        @Bean
+        @Primary
+        CustomerAddressRepository stubCustomerAddressRepository() {
+            return mock(CustomerAddressRepository.class, withSettings().stubOnly());
+        }
+    }
+
+    @BeforeClass
+    public static void enabled() {
+        Assume.assumeTrue("load test, enable with -Daddress.load-test=true", Boolean.getBoolean("address.load-test"));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = CustomerTestHelper.createRandomValidCustomer();
+            customer.setAddresses(new ArrayList<>());
+            customer.getAddresses().add(AddressTestHelper.createRandomValidAddress());
+            customer.getAddresses().add(AddressTestHelper.createRandomValidAddress());
+            customers.add(customer);
+            customersById.put(customer.getId(), customer);
+        }
+        body = objectMapper.writerWithView(View.CUSTOMER.REQUEST_BODY.ADDRESS.class)
+                .writeValueAsString(AddressTestHelper.createRandomValidAddress());
+
+        //the token header carries the customer index
+        willAnswer(sleeping(AUTH_LATENCY_MS, invocation -> {
+            HttpServletRequest request = invocation.getArgument(0);
+            return mockAuth(customers.get(Integer.parseInt(request.getHeader(HttpHeaders.AUTHORIZATION))), UserRole.CUSTOMER);
+        })).given(tokenAuthenticationService).getAuthentication(any());
+        willAnswer(sleeping(DB_LATENCY_MS,
+                invocation -> CustomerAddressService.projectionOf(customersById.get(invocation.<String>getArgument(0)))))
+                .given(customerAddressRepository).findAddresses(anyString());
+        willAnswer(sleeping(DB_LATENCY_MS,
+                invocation -> CustomerAddressService.projectionOf(customersById.get(invocation.<String>getArgument(0)))))
+                .given(customerAddressRepository).findAddressVersion(anyString());
+        willAnswer(sleeping(DB_LATENCY_MS, invocation -> customersById.get(invocation.<String>getArgument(0))))
+                .given(customerService).loadCustomer(anyString());
+        willAnswer(sleeping(DB_LATENCY_MS, invocation -> invocation.getArgument(1)))
+                .given(customerAddressRepository).insertConfirmedAddress(anyString(), any(Address.class), anyBoolean());
+    }
+
+    @Test
+    public void mixedTraffic() throws Exception {
+        //warm up caches, jit and pools, not measured
+        run(REQUESTS / 10);
+        long[] latencies = run(REQUESTS);
+
+        Arrays.sort(latencies);
+        logger.info("address load test, {} threads, {} requests, {}% POST, db {} ms, auth {} ms",
+                THREADS, REQUESTS, POST_PERCENT, DB_LATENCY_MS, AUTH_LATENCY_MS);
+        logger.info(String.format("address load test, throughput %.0f req/s, p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, max %.2f ms,"
+                        + " %d rejected, %d timed out",
+                REQUESTS / (elapsedNanos / 1e9), millis(latencies, 0.5), millis(latencies, 0.99), millis(latencies, 0.999),
+                latencies[latencies.length - 1] / 1e6, rejected.get(), timedOut.get()));
+    }
+
+    /**
+     * @return latency of each request in nanos
+     */
+    private long[] run(int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        rejected.set(0);
+        timedOut.set(0);
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            clients.execute(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long begin = System.nanoTime();
+                    try {
+                        int status = request();
+                        if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                            //executor saturated, part of what is being measured
+                            rejected.incrementAndGet();
+                        } else if (status == HttpStatus.GATEWAY_TIMEOUT.value()) {
+                            //deadline passed, part of what is being measured too
+                            timedOut.incrementAndGet();
+                        } else if (status >= 400) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - begin;
+                }
+            });
+        }
+        clients.shutdown();
+        assertThat(clients.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+        elapsedNanos = System.nanoTime() - start;
+
+        assertThat(failures.get()).isZero();
+        return latencies;
+    }
+
+    /**
+     * @return status code of a GET or POST of a random customer
+     */
+    private int request() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String token = String.valueOf(random.nextInt(CUSTOMERS));
+        MvcResult mvcResult;
+        if (random.nextInt(100) < POST_PERCENT) {
+            mvcResult = mockMvc.perform(post(API_PATH)
+                    .header(HttpHeaders.AUTHORIZATION, token)
+                    .content(body)
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andReturn();
+        } else {
+            mvcResult = mockMvc.perform(get(API_PATH)
+                    .header(HttpHeaders.AUTHORIZATION, token)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andReturn();
+        }
+        if (mvcResult.getRequest().isAsyncStarted()) {
+            mvcResult = mockMvc.perform(asyncDispatch(mvcResult)).andReturn();
+        }
+        return mvcResult.getResponse().getStatus();
+    }
+
+    private static Answer<Object> sleeping(long millis, Answer<Object> answer) {
+        return invocation -> {
+            if (millis > 0) {
+                Thread.sleep(millis);
+            }
+            return answer.answer(invocation);
+        };
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
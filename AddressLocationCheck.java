@@ -0,0 +1,23 @@
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * location check of a submitted address, shared by {@link AddressController} and {@link ReactiveAddressController}
+ */
+@Component
+public class AddressLocationCheck {
+
+    @Autowired
+    private LocationBounds locationBounds;
+
+    /**
+     * @throws AddressLocationException if the location is far from the city (or province) of the address,
+     *                                  consistent and unknown places pass
+     */
+    public void check(Address address) {
+        LocationBounds.Result result = locationBounds.check(address.getProvince(), address.getCity(), address.getLocation());
+        if (result == LocationBounds.Result.SWAPPED || result == LocationBounds.Result.OUT_OF_BOUNDS) {
+            throw new AddressLocationException(result);
+        }
+    }
+}
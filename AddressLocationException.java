@@ -0,0 +1,16 @@
+/**
+ * thrown by {@link AddressLocationCheck} for a submitted location inconsistent with the province and city of the address
+ */
+public class AddressLocationException extends RuntimeException {
+
+    private final LocationBounds.Result result;
+
+    public AddressLocationException(LocationBounds.Result result) {
+        super("address location is " + result.name().toLowerCase());
+        this.result = result;
+    }
+
+    public LocationBounds.Result getResult() {
+        return result;
+    }
+}
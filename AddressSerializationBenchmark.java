@@ -0,0 +1,64 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code @JsonView(View.PUBLIC.class)} serialization of the address list response, as written by {@link AddressController}.
+ * the ObjectMapper comes from a context of just the jackson auto configuration, so the spring.jackson settings
+ * of the application apply (e.g. default view inclusion, which decides what the PUBLIC view writes).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddressSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int addressCount;
+
+    private ObjectWriter writer;
+
+    private ResultObject result;
+
+    @Setup
+    public void setUp() {
+        Customer customer = CustomerTestHelper.createRandomValidCustomer();
+        customer.setAddresses(new ArrayList<>());
+        for (int i = 0; i < addressCount; i++) {
+            customer.getAddresses().add(AddressTestHelper.createRandomValidAddress());
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run()) {
+            writer = context.getBean(ObjectMapper.class).writerWithView(View.PUBLIC.class);
+        }
+        result = new ResultObject(customer.getAddresses());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(result);
+    }
+}
@@ -0,0 +1,60 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * validation of an add address request body: the whole bean validation pass
+ * and the persian text rules alone, regex vs {@link PersianTextValidator}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddressValidationBenchmark {
+
+    private static final Pattern TEXT_FA_LARGE = Pattern.compile(RegExUtil.TEXT_FA_LARGE);
+
+    private Validator validator;
+
+    private Address address;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        address = AddressTestHelper.createRandomValidAddress();
+        text = "تهران، خیابان ولیعصر، بالاتر از میدان ونک، کوچه ۱۲، پلاک ۳۴، طبقه ۵";
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Address>> beanValidation() {
+        return validator.validate(address);
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return TEXT_FA_LARGE.matcher(text).matches();
+    }
+
+    @Benchmark
+    public boolean table() {
+        return PersianTextValidator.isValidLarge(text);
+    }
+}
@@ -0,0 +1,20 @@
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link CachedAuthenticationFilter} is a bean for the security filter chain only.
+ * spring boot would register every Filter bean with the servlet container as well,
+ * so the token would be resolved (and the security context cleared) twice per request.
+ */
+@Configuration
+public class AuthenticationFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<CachedAuthenticationFilter> cachedAuthenticationFilterRegistration(
+            CachedAuthenticationFilter filter) {
+        FilterRegistrationBean<CachedAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -0,0 +1,54 @@
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * stateless token authentication which resolves the {@link UserAuthentication} once per request.
+ * the result is kept as a request attribute, so the async dispatch of a {@link java.util.concurrent.CompletableFuture}
+ * result restores the same principal instead of authenticating the token again.
+ * it belongs in the security filter chain only, {@link AuthenticationFilterConfig} keeps it off the servlet chain.
+ * the security configuration isn't part of this tree: until it adds this filter in place of the current token filter,
+ * async requests are still authenticated twice (the controller tests expect that).
+ */
+@Component
+public class CachedAuthenticationFilter extends OncePerRequestFilter {
+
+    static final String AUTHENTICATION_ATTRIBUTE = CachedAuthenticationFilter.class.getName() + ".AUTHENTICATION";
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        UserAuthentication authentication = (UserAuthentication) request.getAttribute(AUTHENTICATION_ATTRIBUTE);
+        if (authentication == null && !isAsyncDispatch(request)) {
+            authentication = verifiedTokenCache.getAuthentication(request);
+            if (authentication != null) {
+                request.setAttribute(AUTHENTICATION_ATTRIBUTE, authentication);
+            }
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * the principal has to be restored on async dispatch too, it just isn't authenticated again
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link CachedAuthenticationFilter} on its own, the security chain it belongs to isn't part of this tree
+ */
+public class CachedAuthenticationFilterTest {
+
+    private CachedAuthenticationFilter filter;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private final List<Authentication> seen = new ArrayList<>();
+
+    private final FilterChain chain = (request, response) -> seen.add(SecurityContextHolder.getContext().getAuthentication());
+
+    @Before
+    public void setUp() throws Exception {
+        verifiedTokenCache = mock(VerifiedTokenCache.class);
+        filter = new CachedAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", verifiedTokenCache);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void asyncDispatchRestoresThePrincipal() throws Exception {
+        UserAuthentication authentication = mock(UserAuthentication.class);
+        given(verifiedTokenCache.getAuthentication(any())).willReturn(authentication);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/public/address");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(seen).containsExactly(authentication, authentication);
+        verify(verifiedTokenCache, times(1)).getAuthentication(any());
+        //nothing leaks to the next request on the thread
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    public void anonymous() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/public/address");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(seen).containsExactly((Authentication) null);
+        verify(verifiedTokenCache, times(1)).getAuthentication(any());
+    }
+}
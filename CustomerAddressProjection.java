@@ -0,0 +1,60 @@
+import java.util.List;
+
+/**
+ * address fields of a customer document, read by {@link CustomerAddressRepository#findAddresses} in one query
+ * so the list and its change version are always consistent.
+ * <p>
+ * addressVersion counts the address writes of the customer since addressEpoch was started, addressChanges holds
+ * the ids of the addresses written by the most recent of them in order (the last one by addressVersion), all of them
+ * are written by the same update as the address itself, see {@link CustomerAddressRepository}.
+ */
+public class CustomerAddressProjection {
+
+    private String id;
+    private List<Address> addresses;
+    private String addressEpoch;
+    private long addressVersion;
+    private List<String> addressChanges;
+
+    CustomerAddressProjection() {
+    }
+
+    public CustomerAddressProjection(String id, List<Address> addresses, String addressEpoch, long addressVersion,
+                                     List<String> addressChanges) {
+        this.id = id;
+        this.addresses = addresses;
+        this.addressEpoch = addressEpoch;
+        this.addressVersion = addressVersion;
+        this.addressChanges = addressChanges;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<Address> getAddresses() {
+        return addresses;
+    }
+
+    /**
+     * @return null if address writes were never counted (or the counters were dropped by a save of the whole customer)
+     */
+    public String getAddressEpoch() {
+        return addressEpoch;
+    }
+
+    /**
+     * @return number of address writes counted in the epoch
+     */
+    public long getAddressVersion() {
+        return addressVersion;
+    }
+
+    /**
+     * @return ids of the addresses written by the last (at most address.changes.max-entries) writes, oldest first,
+     * or null if there is none
+     */
+    public List<String> getAddressChanges() {
+        return addressChanges;
+    }
+}
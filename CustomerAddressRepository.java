@@ -0,0 +1,195 @@
+import com.mongodb.client.result.UpdateResult;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.function.Supplier;
+
+/**
+ * address only access to customer documents, the rest of the customer profile is never loaded.
+ * <p>
+ * every address write is a single update that also increments {@link #ADDRESS_VERSION} and appends the written
+ * address id to the bounded {@link #ADDRESS_CHANGES}, delta sync is derived from those fields so it holds across nodes
+ * and restarts. the counters belong to an {@link #ADDRESS_EPOCH}: writes only match a document that has one, a
+ * customer never counted (or saved as a whole since, which drops all three fields) first gets a new epoch,
+ * so no version handed out before the counters were lost matches again.
+ */
+@Repository
+public class CustomerAddressRepository {
+
+    static final String ADDRESS_EPOCH = "addressEpoch";
+    static final String ADDRESS_VERSION = "addressVersion";
+    static final String ADDRESS_CHANGES = "addressChanges";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${address.changes.max-entries:256}")
+    private int maxChanges = 256;
+
+    /**
+     * @return addresses and their change version or null if customer doesn't exist
+     */
+    public CustomerAddressProjection findAddresses(String customerId) {
+        Query query = Query.query(Criteria.where("_id").is(customerId));
+        query.fields().include("addresses").include(ADDRESS_EPOCH).include(ADDRESS_VERSION).include(ADDRESS_CHANGES);
+
+        return mongoTemplate.findOne(query, CustomerAddressProjection.class, mongoTemplate.getCollectionName(Customer.class));
+    }
+
+    /**
+     * @return only the change version (epoch and version, no addresses) or null if customer doesn't exist
+     */
+    public CustomerAddressProjection findAddressVersion(String customerId) {
+        Query query = Query.query(Criteria.where("_id").is(customerId));
+        query.fields().include(ADDRESS_EPOCH).include(ADDRESS_VERSION);
+
+        return mongoTemplate.findOne(query, CustomerAddressProjection.class, mongoTemplate.getCollectionName(Customer.class));
+    }
+
+    /**
+     * inserts an already confirmed address and optionally makes it the primary one,
+     * all in a single atomic update of the customer document. the update only matches a customer that has no address
+     * with the same id, so a retried request can't add the address twice.
+     *
+     * @return inserted copy of address (with its id) or null if customer doesn't exist or already has the address,
+     * address itself isn't changed
+     */
+    public Address insertConfirmedAddress(String customerId, Address address, boolean primary) {
+        return insert(customerId, address, true, primary);
+    }
+
+    /**
+     * inserts an address still to be confirmed, same conditions as {@link #insertConfirmedAddress}
+     */
+    public Address insertAddress(String customerId, Address address) {
+        return insert(customerId, address, false, false);
+    }
+
+    /**
+     * the primary address is a copy of one of the addresses, it is confirmed in the same update when it is this one
+     *
+     * @return false if customer doesn't exist or has no such address
+     */
+    public boolean confirmAddress(String customerId, String addressId) {
+        return write(customerId, () -> hasAddress(customerId, addressId).and("primaryAddress.id").is(addressId),
+                () -> new Update().set("addresses.$.confirmed", true).set("primaryAddress.confirmed", true), addressId)
+                || write(customerId, () -> hasAddress(customerId, addressId).and("primaryAddress.id").ne(addressId),
+                () -> new Update().set("addresses.$.confirmed", true), addressId);
+    }
+
+    /**
+     * copies the address to primaryAddress, the update only matches if no address write happened since it was read
+     *
+     * @return false if customer doesn't exist or has no such address
+     * @throws OptimisticLockingFailureException if concurrent address writes kept changing the customer
+     */
+    public boolean changePrimaryAddress(String customerId, String addressId) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            CustomerAddressProjection current = findAddresses(customerId);
+            if (current == null) {
+                return false;
+            }
+            if (current.getAddressEpoch() == null) {
+                startEpoch(customerId);
+                continue;
+            }
+            Address address = current.getAddresses() == null ? null : current.getAddresses().stream()
+                    .filter(a -> addressId.equals(a.getId()))
+                    .findFirst()
+                    .orElse(null);
+            if (address == null) {
+                return false;
+            }
+            Query query = Query.query(Criteria.where("_id").is(customerId)
+                    .and(ADDRESS_EPOCH).is(current.getAddressEpoch())
+                    .and(ADDRESS_VERSION).is(current.getAddressVersion()));
+            UpdateResult result = mongoTemplate.updateFirst(query,
+                    changed(new Update().set("primaryAddress", address), addressId), Customer.class);
+            if (result.getMatchedCount() > 0) {
+                return true;
+            }
+        }
+        throw new OptimisticLockingFailureException("addresses of customer " + customerId + " kept changing");
+    }
+
+    private Address insert(String customerId, Address address, boolean confirmed, boolean primary) {
+        Address inserted = copyOf(address);
+        if (inserted.getId() == null) {
+            inserted.setId(new ObjectId().toHexString());
+        }
+        inserted.setConfirmed(confirmed);
+
+        Supplier<Criteria> target = () -> Criteria.where("_id").is(customerId).and("addresses.id").ne(inserted.getId());
+        boolean written = write(customerId, target, () -> {
+            Update update = new Update().push("addresses", inserted);
+            if (primary) {
+                update.set("primaryAddress", inserted);
+            }
+            return update;
+        }, inserted.getId());
+        return written ? inserted : null;
+    }
+
+    /**
+     * applies update to the customer matching target, counted in the same update.
+     * only a miss caused by missing counters is retried, after starting an epoch
+     *
+     * @return false if target doesn't match
+     */
+    private boolean write(String customerId, Supplier<Criteria> target, Supplier<Update> update, String addressId) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            UpdateResult result = mongoTemplate.updateFirst(Query.query(target.get().and(ADDRESS_EPOCH).exists(true)),
+                    changed(update.get(), addressId), Customer.class);
+            if (result.getMatchedCount() > 0) {
+                return true;
+            }
+            if (!startEpoch(customerId)) {
+                //counters exist (or customer doesn't), target itself doesn't match
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the customer had no counters and now has a new epoch starting at version 0
+     */
+    private boolean startEpoch(String customerId) {
+        Query query = Query.query(Criteria.where("_id").is(customerId).and(ADDRESS_EPOCH).exists(false));
+        Update update = new Update()
+                .set(ADDRESS_EPOCH, new ObjectId().toHexString())
+                .set(ADDRESS_VERSION, 0L)
+                .set(ADDRESS_CHANGES, Collections.emptyList());
+        return mongoTemplate.updateFirst(query, update, Customer.class).getMatchedCount() > 0;
+    }
+
+    private static Criteria hasAddress(String customerId, String addressId) {
+        return Criteria.where("_id").is(customerId).and("addresses.id").is(addressId);
+    }
+
+    private Update changed(Update update, String addressId) {
+        return update.inc(ADDRESS_VERSION, 1)
+                .push(ADDRESS_CHANGES).slice(-maxChanges).each(addressId);
+    }
+
+    /**
+     * round trip through the stored form, so the copy has exactly the fields that are persisted
+     */
+    private Address copyOf(Address address) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(address, document);
+        return mongoTemplate.getConverter().read(Address.class, document);
+    }
+}
@@ -0,0 +1,94 @@
+import com.mongodb.client.result.UpdateResult;
+
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+/**
+ * counted address writes of {@link CustomerAddressRepository}
+ */
+public class CustomerAddressRepositoryTest {
+
+    private static final UpdateResult MATCHED = UpdateResult.acknowledged(1, 1L, null);
+    private static final UpdateResult MISSED = UpdateResult.acknowledged(0, 0L, null);
+
+    private CustomerAddressRepository customerAddressRepository;
+
+    private MongoTemplate mongoTemplate;
+
+    private Address address;
+
+    @Before
+    public void setUp() throws Exception {
+        mongoTemplate = mock(MongoTemplate.class);
+        MongoConverter converter = mock(MongoConverter.class);
+        given(mongoTemplate.getConverter()).willReturn(converter);
+        address = AddressTestHelper.createRandomValidAddress();
+        given(converter.read(eq(Address.class), any(Document.class))).willReturn(address);
+
+        customerAddressRepository = new CustomerAddressRepository();
+        ReflectionTestUtils.setField(customerAddressRepository, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    public void countedCustomer() throws Exception {
+        given(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Customer.class))).willReturn(MATCHED);
+
+        assertThat(customerAddressRepository.insertConfirmedAddress("c", address, false)).isSameAs(address);
+
+        List<Query> queries = updates(1);
+        assertThat(epochCondition(queries.get(0))).isTrue();
+    }
+
+    @Test
+    public void uncountedCustomerStartsAnEpoch() throws Exception {
+        //no counters, then the epoch is started, then the write matches
+        given(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Customer.class)))
+                .willReturn(MISSED, MATCHED, MATCHED);
+
+        assertThat(customerAddressRepository.insertConfirmedAddress("c", address, false)).isSameAs(address);
+
+        List<Query> queries = updates(3);
+        assertThat(epochCondition(queries.get(0))).isTrue();
+        assertThat(epochCondition(queries.get(1))).isFalse();
+        assertThat(epochCondition(queries.get(2))).isTrue();
+    }
+
+    @Test
+    public void missingCustomer() throws Exception {
+        given(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Customer.class))).willReturn(MISSED);
+
+        assertThat(customerAddressRepository.insertConfirmedAddress("c", address, false)).isNull();
+
+        //the write missed and there was no epoch to start either
+        updates(2);
+    }
+
+    private List<Query> updates(int count) {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(count)).updateFirst(queries.capture(), any(Update.class), eq(Customer.class));
+        return queries.getAllValues();
+    }
+
+    /**
+     * @return the $exists condition of the query on the epoch
+     */
+    private static boolean epochCondition(Query query) {
+        Document condition = (Document) query.getQueryObject().get(CustomerAddressRepository.ADDRESS_EPOCH);
+        return (Boolean) condition.get("$exists");
+    }
+}
@@ -0,0 +1,309 @@
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * customer addresses as used by {@link AddressController}.
+ * address lists are loaded with a projection and cached per customer (bounded by size and ttl) together with their etag,
+ * a cached list is checked against the change version stored with the customer (a read of two fields) before it is served,
+ * so writes made on other nodes are seen at once.
+ * the cache holds futures, so concurrent requests of a customer share one in-flight load (address.load{result=coalesced})
+ * and a write invalidates the in-flight load too: callers arriving after the write start a new one.
+ * the serialized {@link View.PUBLIC} response is cached separately, bounded by its size in bytes.
+ * every address mutation goes through this service so both caches are invalidated right after the write,
+ * each one is a single update of {@link CustomerAddressRepository} that also counts the written address in the change
+ * version of the customer document for delta sync.
+ */
+@Service
+public class CustomerAddressService {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerAddressRepository customerAddressRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("addressExecutor")
+    private ExecutorService addressExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AddressDeadlines deadlines;
+
+    @Value("${address.cache.maximum-size:100000}")
+    private long cacheMaximumSize;
+
+    @Value("${address.cache.ttl:PT10M}")
+    private Duration cacheTtl;
+
+    @Value("${address.json-cache.maximum-bytes:67108864}")
+    private long jsonCacheMaximumBytes;
+
+    private AsyncCache<String, CustomerAddresses> cache;
+
+    private Cache<String, PublicJson> jsonCache;
+
+    private Counter loaded;
+    private Counter coalesced;
+    private Counter hit;
+    private Counter stale;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .buildAsync();
+        jsonCache = Caffeine.newBuilder()
+                .maximumWeight(jsonCacheMaximumBytes)
+                .<String, PublicJson>weigher((customerId, json) -> json.bytes.length)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        loaded = loadCounter("loaded");
+        coalesced = loadCounter("coalesced");
+        hit = loadCounter("hit");
+        stale = loadCounter("stale");
+    }
+
+    private Counter loadCounter(String result) {
+        return Counter.builder("address.load")
+                .description("address list requests by outcome, coalesced ones joined a load already in flight,"
+                        + " stale ones found a cached list written since on another node")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * loads on {@code addressExecutor} with {@link CustomerAddressRepository}.
+     * the load is bounded by the GET deadline from when it starts, on expiry it is interrupted and every caller sharing it fails
+     */
+    public CompletableFuture<CustomerAddresses> loadAddresses(String customerId) {
+        return loadAddresses(customerId,
+                id -> deadlines.supplyAsync(AddressDeadlines.Endpoint.GET, () -> findAddresses(id), addressExecutor),
+                id -> deadlines.supplyAsync(AddressDeadlines.Endpoint.GET,
+                        () -> customerAddressRepository.findAddressVersion(id), addressExecutor));
+    }
+
+    /**
+     * a cached list is only served after its version was compared with the stored one: the cache is local to each node
+     * and a write invalidates it only on the node that made it, a list written since on another node is loaded again.
+     *
+     * @param loader  starts a load of the addresses, called only if neither a (current) cached nor an in-flight load exists
+     * @param version starts a read of the stored change version only, completes with null if customer doesn't exist
+     * @return a copy of the shared future, cancelling it doesn't affect the other callers
+     */
+    public CompletableFuture<CustomerAddresses> loadAddresses(String customerId,
+                                                              Function<String, CompletableFuture<CustomerAddressProjection>> loader,
+                                                              Function<String, CompletableFuture<CustomerAddressProjection>> version) {
+        CompletableFuture<CustomerAddresses> cached = cache.getIfPresent(customerId);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return load(customerId, loader);
+        }
+        CustomerAddresses current = cached.join();
+        return version.apply(customerId).thenCompose(stored -> {
+            if (stored != null && current.isVersion(stored)) {
+                hit.increment();
+                return CompletableFuture.completedFuture(current);
+            }
+            stale.increment();
+            //only if no other caller replaced it already
+            cache.asMap().remove(customerId, cached);
+            return load(customerId, loader);
+        });
+    }
+
+    private CompletableFuture<CustomerAddresses> load(String customerId,
+                                                      Function<String, CompletableFuture<CustomerAddressProjection>> loader) {
+        boolean[] started = new boolean[1];
+        CompletableFuture<CustomerAddresses> result = cache.get(customerId, (id, executor) -> {
+            started[0] = true;
+            return loader.apply(id).thenApply(projection -> snapshot(id, projection));
+        });
+        if (started[0]) {
+            loaded.increment();
+        } else if (result.isDone()) {
+            //cached in the meantime by a load that started after this request
+            hit.increment();
+        } else {
+            coalesced.increment();
+        }
+        return result.copy();
+    }
+
+    /**
+     * @return utf-8 json of {@code new ResultObject(addresses)} in {@link View.PUBLIC}, serialized once per address version
+     */
+    public byte[] publicJson(CustomerAddresses addresses) {
+        PublicJson json = jsonCache.getIfPresent(addresses.getCustomerId());
+        if (json == null || !json.etag.equals(addresses.getEtag())) {
+            byte[] bytes = serialize(addresses.getAddresses());
+            json = new PublicJson(addresses.getEtag(), bytes);
+            jsonCache.put(addresses.getCustomerId(), json);
+        }
+        return json.bytes;
+    }
+
+    /**
+     * the delta is derived from the version stored with the addresses, so it doesn't matter which node served since
+     *
+     * @param since version of a previous response, -1 (or anything that isn't a version) to start,
+     *              unknown versions get the full list
+     * @return utf-8 json of {@code new ResultObject(delta)} in {@link View.PUBLIC}, only written addresses are serialized
+     */
+    public CompletableFuture<byte[]> addressesSince(String customerId, String since) {
+        return loadAddresses(customerId).thenApply(loaded -> delta(loaded, since));
+    }
+
+    /**
+     * @see #addressesSince(String, String)
+     */
+    public byte[] delta(CustomerAddresses loaded, String since) {
+        List<Address> addresses = loaded.getAddresses() == null ? Collections.emptyList() : loaded.getAddresses();
+        Set<String> changed = loaded.changedSince(since);
+        if (changed == null) {
+            return serialize(new AddressDelta(loaded.getVersion(), true, addresses, Collections.emptySet()));
+        }
+        Set<String> removed = new HashSet<>(changed);
+        List<Address> written = new ArrayList<>();
+        if (!removed.isEmpty()) {
+            for (Address address : addresses) {
+                if (removed.remove(address.getId())) {
+                    written.add(address);
+                }
+            }
+        }
+        return serialize(new AddressDelta(loaded.getVersion(), false, written, removed));
+    }
+
+    /**
+     * adds an address still to be confirmed, see {@link CustomerAddressRepository#insertAddress}
+     *
+     * @return added address or null if it couldn't be added
+     */
+    public Address addAddress(String customerId, Address address) {
+        try {
+            return customerAddressRepository.insertAddress(customerId, address);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    /**
+     * adds a confirmed address and makes it primary if asked, with the single update of
+     * {@link CustomerAddressRepository#insertConfirmedAddress} (the change version is part of that update).
+     * the checks are conditions of that update, so nothing is written unless all of them hold.
+     * address isn't changed, the returned one carries the id.
+     *
+     * @return added address or null if the customer doesn't exist or already has an address with the same id
+     */
+    public Address addAddress(String customerId, Address address, boolean primary) {
+        try {
+            return customerAddressRepository.insertConfirmedAddress(customerId, address, primary);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    /**
+     * @return false if the customer has no such address
+     */
+    public boolean confirmAddress(String customerId, String addressId) {
+        try {
+            return customerAddressRepository.confirmAddress(customerId, addressId);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    /**
+     * @return false if the customer has no such address
+     */
+    public boolean changePrimaryAddress(String customerId, String addressId) {
+        try {
+            return customerAddressRepository.changePrimaryAddress(customerId, addressId);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    /**
+     * drops cached and in-flight loads, an in-flight load still completes for the callers it has but is never cached
+     */
+    public void invalidate(String customerId) {
+        cache.synchronous().invalidate(customerId);
+        jsonCache.invalidate(customerId);
+    }
+
+    private CustomerAddressProjection findAddresses(String customerId) {
+        CustomerAddressProjection projection = customerAddressRepository.findAddresses(customerId);
+        if (projection == null) {
+            //let customer service fail the same way it does for a missing customer
+            projection = projectionOf(customerService.loadCustomer(customerId));
+        }
+        return projection;
+    }
+
+    /**
+     * a customer loaded without its change version, delta requests get the full list
+     */
+    static CustomerAddressProjection projectionOf(Customer customer) {
+        return new CustomerAddressProjection(customer.getId(), customer.getAddresses(), null, 0, null);
+    }
+
+    private CustomerAddresses snapshot(String customerId, CustomerAddressProjection projection) {
+        //the etag is computed once per load, conditional requests hitting the cache compare it without any serialization
+        List<Address> addresses = projection.getAddresses();
+        byte[] bytes = serialize(addresses);
+        String etag = '"' + DigestUtils.md5DigestAsHex(bytes) + '"';
+        jsonCache.put(customerId, new PublicJson(etag, bytes));
+        return new CustomerAddresses(customerId, addresses, etag, projection.getAddressEpoch(),
+                projection.getAddressVersion(), projection.getAddressChanges());
+    }
+
+    private byte[] serialize(Object data) {
+        try {
+            return objectMapper.writerWithView(View.PUBLIC.class).writeValueAsBytes(new ResultObject(data));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class PublicJson {
+
+        private final String etag;
+        private final byte[] bytes;
+
+        PublicJson(String etag, byte[] bytes) {
+            this.etag = etag;
+            this.bytes = bytes;
+        }
+    }
+}
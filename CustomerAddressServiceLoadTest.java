@@ -0,0 +1,126 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+/**
+ * coalescing and revalidation of address loads in {@link CustomerAddressService}
+ */
+public class CustomerAddressServiceLoadTest {
+
+    private CustomerAddressService customerAddressService;
+
+    private CustomerAddressRepository customerAddressRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExecutorService executor;
+
+    private AddressDeadlines deadlines;
+
+    private Customer customer;
+
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() throws Exception {
+        customerAddressRepository = mock(CustomerAddressRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(4);
+
+        deadlines = CustomerAddressServiceTestHelper.createDeadlines(meterRegistry);
+        customerAddressService = CustomerAddressServiceTestHelper.createCustomerAddressService(customerAddressRepository,
+                null, executor, meterRegistry, deadlines);
+
+        customer = CustomerTestHelper.createRandomValidCustomer();
+        customer.setAddresses(new ArrayList<>());
+        customer.getAddresses().add(AddressTestHelper.createRandomValidAddress());
+
+        //repository blocks until released, so loads stay in flight
+        release = new CountDownLatch(1);
+        willAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return CustomerAddressService.projectionOf(customer);
+        }).given(customerAddressRepository).findAddresses(eq(customer.getId()));
+        given(customerAddressRepository.findAddressVersion(eq(customer.getId())))
+                .willReturn(CustomerAddressService.projectionOf(customer));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        deadlines.shutdown();
+    }
+
+    @Test
+    public void concurrentLoadsAreCoalesced() throws Exception {
+        CompletableFuture<CustomerAddresses> first = customerAddressService.loadAddresses(customer.getId());
+        CompletableFuture<CustomerAddresses> second = customerAddressService.loadAddresses(customer.getId());
+        release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).isSameAs(second.get(10, TimeUnit.SECONDS));
+        assertThat(customerAddressService.loadAddresses(customer.getId()).get(10, TimeUnit.SECONDS)).isSameAs(first.get());
+
+        verify(customerAddressRepository, times(1)).findAddresses(eq(customer.getId()));
+        //the hit was checked against the stored version
+        verify(customerAddressRepository, times(1)).findAddressVersion(eq(customer.getId()));
+        assertThat(meterRegistry.get("address.load").tag("result", "loaded").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("address.load").tag("result", "coalesced").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("address.load").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void writeDuringLoad() throws Exception {
+        CompletableFuture<CustomerAddresses> before = customerAddressService.loadAddresses(customer.getId());
+        customerAddressService.invalidate(customer.getId());
+        //arrives after the write, must not join the load started before it
+        CompletableFuture<CustomerAddresses> after = customerAddressService.loadAddresses(customer.getId());
+        release.countDown();
+
+        assertThat(before.get(10, TimeUnit.SECONDS)).isNotSameAs(after.get(10, TimeUnit.SECONDS));
+        //the stale load isn't cached
+        assertThat(customerAddressService.loadAddresses(customer.getId()).get(10, TimeUnit.SECONDS)).isSameAs(after.get());
+
+        verify(customerAddressRepository, times(2)).findAddresses(eq(customer.getId()));
+    }
+
+    @Test
+    public void writtenOnAnotherNode() throws Exception {
+        release.countDown();
+        CustomerAddresses cached = customerAddressService.loadAddresses(customer.getId()).get(10, TimeUnit.SECONDS);
+        //another node counted a write, this node's cache wasn't invalidated
+        given(customerAddressRepository.findAddressVersion(eq(customer.getId())))
+                .willReturn(new CustomerAddressProjection(customer.getId(), null, "e1", 1, null));
+
+        assertThat(customerAddressService.loadAddresses(customer.getId()).get(10, TimeUnit.SECONDS)).isNotSameAs(cached);
+
+        verify(customerAddressRepository, times(2)).findAddresses(eq(customer.getId()));
+        assertThat(meterRegistry.get("address.load").tag("result", "stale").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("address.load").tag("result", "hit").counter().count()).isZero();
+    }
+
+    @Test
+    public void cancellingACallerDoesNotCancelTheLoad() throws Exception {
+        CompletableFuture<CustomerAddresses> first = customerAddressService.loadAddresses(customer.getId());
+        CompletableFuture<CustomerAddresses> second = customerAddressService.loadAddresses(customer.getId());
+        first.cancel(true);
+        release.countDown();
+
+        assertThat(second.get(10, TimeUnit.SECONDS).getCustomerId()).isEqualTo(customer.getId());
+        verify(customerAddressRepository, times(1)).findAddresses(eq(customer.getId()));
+    }
+}
@@ -0,0 +1,43 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link CustomerAddressService} wired by hand, without a spring context
+ */
+public class CustomerAddressServiceTestHelper {
+
+    /**
+     * @param customerService may be null if the test never falls back to it
+     * @return initialized service, the caller owns executor and deadlines and shuts them down
+     */
+    public static CustomerAddressService createCustomerAddressService(CustomerAddressRepository customerAddressRepository,
+                                                                      CustomerService customerService,
+                                                                      ExecutorService executor,
+                                                                      MeterRegistry meterRegistry,
+                                                                      AddressDeadlines deadlines) {
+        CustomerAddressService customerAddressService = new CustomerAddressService();
+        ReflectionTestUtils.setField(customerAddressService, "customerService", customerService);
+        ReflectionTestUtils.setField(customerAddressService, "customerAddressRepository", customerAddressRepository);
+        ReflectionTestUtils.setField(customerAddressService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(customerAddressService, "addressExecutor", executor);
+        ReflectionTestUtils.setField(customerAddressService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(customerAddressService, "deadlines", deadlines);
+        ReflectionTestUtils.setField(customerAddressService, "cacheMaximumSize", 1000L);
+        ReflectionTestUtils.setField(customerAddressService, "cacheTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(customerAddressService, "jsonCacheMaximumBytes", 1L << 20);
+        customerAddressService.init();
+        return customerAddressService;
+    }
+
+    /**
+     * deadlines long enough to never expire in a test
+     */
+    public static AddressDeadlines createDeadlines(MeterRegistry meterRegistry) {
+        return new AddressDeadlines(meterRegistry, Duration.ofSeconds(10), Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,125 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+/**
+ * address writes made through {@link CustomerAddressService} are single repository updates and invalidate the cache
+ */
+public class CustomerAddressServiceWriteTest {
+
+    private CustomerAddressService customerAddressService;
+
+    private CustomerService customerService;
+
+    private CustomerAddressRepository customerAddressRepository;
+
+    private ExecutorService executor;
+
+    private AddressDeadlines deadlines;
+
+    private Customer customer;
+
+    private Address address;
+
+    @Before
+    public void setUp() throws Exception {
+        customerService = mock(CustomerService.class);
+        customerAddressRepository = mock(CustomerAddressRepository.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newSingleThreadExecutor();
+
+        deadlines = CustomerAddressServiceTestHelper.createDeadlines(meterRegistry);
+        customerAddressService = CustomerAddressServiceTestHelper.createCustomerAddressService(customerAddressRepository,
+                customerService, executor, meterRegistry, deadlines);
+
+        customer = CustomerTestHelper.createRandomValidCustomer();
+        customer.setAddresses(new ArrayList<>());
+        address = AddressTestHelper.createRandomValidAddress();
+        customer.getAddresses().add(address);
+
+        given(customerAddressRepository.findAddresses(eq(customer.getId())))
+                .willReturn(CustomerAddressService.projectionOf(customer));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        deadlines.shutdown();
+    }
+
+    @Test
+    public void addAddress() throws Exception {
+        load();
+        Address added = AddressTestHelper.createRandomValidAddress();
+        given(customerAddressRepository.insertConfirmedAddress(eq(customer.getId()), eq(added), eq(true))).willReturn(added);
+
+        assertThat(customerAddressService.addAddress(customer.getId(), added, true)).isSameAs(added);
+
+        //one write, no separate confirm or primary change
+        verify(customerAddressRepository, times(1)).insertConfirmedAddress(eq(customer.getId()), eq(added), eq(true));
+        verifyZeroInteractions(customerService);
+        load();
+        verify(customerAddressRepository, times(2)).findAddresses(eq(customer.getId()));
+    }
+
+    @Test
+    public void confirmAddress() throws Exception {
+        load();
+        given(customerAddressRepository.confirmAddress(eq(customer.getId()), eq(address.getId()))).willReturn(true);
+
+        assertThat(customerAddressService.confirmAddress(customer.getId(), address.getId())).isTrue();
+
+        //counted by the repository in the same update
+        verify(customerAddressRepository, times(1)).confirmAddress(eq(customer.getId()), eq(address.getId()));
+        verifyZeroInteractions(customerService);
+        //the cached list was dropped
+        load();
+        verify(customerAddressRepository, times(2)).findAddresses(eq(customer.getId()));
+    }
+
+    @Test
+    public void changePrimaryAddress() throws Exception {
+        load();
+        given(customerAddressRepository.changePrimaryAddress(eq(customer.getId()), eq(address.getId()))).willReturn(true);
+
+        assertThat(customerAddressService.changePrimaryAddress(customer.getId(), address.getId())).isTrue();
+
+        verify(customerAddressRepository, times(1)).changePrimaryAddress(eq(customer.getId()), eq(address.getId()));
+        verifyZeroInteractions(customerService);
+        load();
+        verify(customerAddressRepository, times(2)).findAddresses(eq(customer.getId()));
+    }
+
+    @Test
+    public void failedWriteInvalidates() throws Exception {
+        load();
+        willThrow(new IllegalStateException("write failed"))
+                .given(customerAddressRepository).changePrimaryAddress(anyString(), anyString());
+
+        assertThatThrownBy(() -> customerAddressService.changePrimaryAddress(customer.getId(), address.getId()))
+                .isInstanceOf(IllegalStateException.class);
+
+        //the write may have been applied before the failure was seen
+        load();
+        verify(customerAddressRepository, times(2)).findAddresses(eq(customer.getId()));
+    }
+
+    private void load() throws Exception {
+        customerAddressService.loadAddresses(customer.getId()).get(10, TimeUnit.SECONDS);
+    }
+}
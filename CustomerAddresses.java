@@ -0,0 +1,123 @@
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * immutable snapshot of a customer's address list as cached by {@link CustomerAddressService}.
+ */
+public final class CustomerAddresses {
+
+    /**
+     * version of a list whose writes were never counted
+     */
+    static final String UNCOUNTED = "0";
+
+    private final String customerId;
+    private final List<Address> addresses;
+    private final String etag;
+    private final String epoch;
+    private final long version;
+    private final List<String> changes;
+
+    public CustomerAddresses(String customerId, List<Address> addresses, String etag) {
+        this(customerId, addresses, etag, null, 0, null);
+    }
+
+    /**
+     * @param epoch    {@link CustomerAddressProjection#getAddressEpoch()} read with the addresses
+     * @param version  {@link CustomerAddressProjection#getAddressVersion()} read with the addresses
+     * @param changes  {@link CustomerAddressProjection#getAddressChanges()} read with the addresses
+     */
+    public CustomerAddresses(String customerId, List<Address> addresses, String etag, String epoch, long version,
+                             List<String> changes) {
+        this.customerId = customerId;
+        this.addresses = addresses == null ? null : Collections.unmodifiableList(addresses);
+        this.etag = etag;
+        this.epoch = epoch;
+        this.version = version;
+        this.changes = changes == null ? Collections.emptyList() : Collections.unmodifiableList(changes);
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * @return addresses or null if customer has never had any address
+     */
+    public List<Address> getAddresses() {
+        return addresses;
+    }
+
+    /**
+     * @return quoted strong entity tag, hash of the {@link View.PUBLIC} representation of the addresses
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return opaque version of this list, epoch and number of address writes it includes, {@link #UNCOUNTED} if none
+     * was ever counted. never negative, so -1 is a safe start value for clients
+     */
+    public String getVersion() {
+        return epoch == null ? UNCOUNTED : epoch + '.' + version;
+    }
+
+    /**
+     * @param stored change version read from the customer now, see {@link CustomerAddressRepository#findAddressVersion}
+     * @return true if no address write was counted since this list was read
+     */
+    public boolean isVersion(CustomerAddressProjection stored) {
+        return Objects.equals(epoch, stored.getAddressEpoch()) && version == stored.getAddressVersion();
+    }
+
+    /**
+     * @param since version of an earlier list of this customer, or anything else (e.g. -1) for none
+     * @return ids of the addresses written after since (some may be gone since), empty if since is this version,
+     * null if the changes after since aren't known (since is from another epoch, too old or isn't a version at all)
+     */
+    public Set<String> changedSince(String since) {
+        if (since == null) {
+            return null;
+        }
+        if (since.equals(getVersion())) {
+            return Collections.emptySet();
+        }
+        if (epoch == null || !since.startsWith(epoch + '.')) {
+            return null;
+        }
+        long sinceVersion;
+        try {
+            sinceVersion = Long.parseLong(since.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (sinceVersion < 0 || sinceVersion > version || version - sinceVersion > changes.size()) {
+            return null;
+        }
+        return new HashSet<>(changes.subList(changes.size() - (int) (version - sinceVersion), changes.size()));
+    }
+
+    /**
+     * @param ifNoneMatch value of If-None-Match header, a list of (possibly weak) tags or *
+     * @return true if client already has this version
+     */
+    public boolean etagMatches(String ifNoneMatch) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
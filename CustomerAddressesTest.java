@@ -0,0 +1,60 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * delta sync versions of {@link CustomerAddresses}
+ */
+public class CustomerAddressesTest {
+
+    @Test
+    public void writesAfterVersion() throws Exception {
+        //versions 3 to 5 wrote a, b and a again
+        CustomerAddresses addresses = new CustomerAddresses("c", Collections.emptyList(), "\"e\"", "e1", 5, Arrays.asList("a", "b", "a"));
+
+        assertThat(addresses.getVersion()).isEqualTo("e1.5");
+        assertThat(addresses.changedSince("e1.5")).isEmpty();
+        assertThat(addresses.changedSince("e1.4")).containsExactly("a");
+        assertThat(addresses.changedSince("e1.3")).containsExactlyInAnyOrder("a", "b");
+        assertThat(addresses.changedSince("e1.2")).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    public void unknownVersions() throws Exception {
+        CustomerAddresses addresses = new CustomerAddresses("c", Collections.emptyList(), "\"e\"", "e1", 5, Arrays.asList("a", "b", "a"));
+
+        //before the oldest kept change
+        assertThat(addresses.changedSince("e1.1")).isNull();
+        //start
+        assertThat(addresses.changedSince("-1")).isNull();
+        assertThat(addresses.changedSince("0")).isNull();
+        //newer than the list
+        assertThat(addresses.changedSince("e1.6")).isNull();
+        //not a version
+        assertThat(addresses.changedSince("e1.x")).isNull();
+        assertThat(addresses.changedSince("e1.-1")).isNull();
+    }
+
+    @Test
+    public void countersWereLost() throws Exception {
+        //a save of the whole customer dropped epoch e1 at version 5, the next write started e2
+        CustomerAddresses addresses = new CustomerAddresses("c", Collections.emptyList(), "\"e\"", "e2", 5, Arrays.asList("a", "b", "c", "d", "e"));
+
+        assertThat(addresses.changedSince("e1.5")).isNull();
+        assertThat(addresses.changedSince("e1.4")).isNull();
+    }
+
+    @Test
+    public void neverCounted() throws Exception {
+        CustomerAddresses addresses = new CustomerAddresses("c", Collections.emptyList(), "\"e\"");
+
+        assertThat(addresses.getVersion()).isEqualTo(CustomerAddresses.UNCOUNTED);
+        //polling with the version of a full response gets an empty delta until something is written
+        assertThat(addresses.changedSince(addresses.getVersion())).isEmpty();
+        assertThat(addresses.changedSince("-1")).isNull();
+        assertThat(addresses.changedSince("e1.1")).isNull();
+    }
+}
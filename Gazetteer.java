@@ -0,0 +1,118 @@
+import java.util.function.Supplier;
+
+/**
+ * immutable in-memory index of the geo reference data (cities, regions and districts).
+ * it answers the whole fallback chain of {@link GeoService#guessLocation} without touching the database,
+ * a new instance is built on every reload and swapped in by {@link GazetteerHolder}.
+ * <p>
+ * each level is indexed on the {@link PersianNormalizer} canonical form of its names,
+ * so spelling variants resolve at the right level with a single probe per level.
+ * {@link #build} indexes entities in hash maps, {@link MappedGazetteer} reads a {@link GazetteerSnapshot} file in place.
+ */
+public interface Gazetteer {
+
+    char SEPARATOR = '\u001F';
+
+    static Gazetteer build(Iterable<City> cities, Iterable<Region> regions, Iterable<District> districts) {
+        return HashGazetteer.build(cities, regions, districts);
+    }
+
+    /**
+     * canonical form of the arguments, normalize once and use the result for every level of the fallback chain
+     */
+    static LocationQuery normalize(String province, String city, String region, String district) {
+        return new LocationQuery(PersianNormalizer.normalize(province), PersianNormalizer.normalize(city),
+                PersianNormalizer.normalize(region), PersianNormalizer.normalize(district));
+    }
+
+    /**
+     * @return province, city, region and district joined with a separator which never appears in names,
+     * trailing null parts are left out, null if province or city is null
+     */
+    static String key(LocationQuery normalized) {
+        if (normalized.getProvince() == null || normalized.getCity() == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(64).append(normalized.getProvince()).append(SEPARATOR).append(normalized.getCity());
+        if (normalized.getRegion() != null) {
+            key.append(SEPARATOR).append(normalized.getRegion());
+            if (normalized.getDistrict() != null) {
+                key.append(SEPARATOR).append(normalized.getDistrict());
+            }
+        }
+        return key.toString();
+    }
+
+    Place findCity(LocationQuery normalized);
+
+    Place findRegion(LocationQuery normalized);
+
+    Place findDistrict(LocationQuery normalized);
+
+    default Place findCity(String province, String city) {
+        return findCity(normalize(province, city, null, null));
+    }
+
+    default Place findRegion(String province, String city, String region) {
+        return findRegion(normalize(province, city, region, null));
+    }
+
+    default Place findDistrict(String province, String city, String region, String district) {
+        return findDistrict(normalize(province, city, region, district));
+    }
+
+    /**
+     * visits every city, region and district, names are the original (not normalized) ones
+     */
+    void accept(Visitor visitor);
+
+    /**
+     * id and center of a single city, region or district.
+     */
+    final class Place {
+
+        private final String id;
+        private final LatLng center;
+        private final Supplier<LocationQuery> location;
+
+        Place(String id, LatLng center, LocationQuery location) {
+            this(id, center, () -> location);
+        }
+
+        /**
+         * @param location decoded on each {@link #getLocation()}, lookups only need id and center
+         */
+        Place(String id, LatLng center, Supplier<LocationQuery> location) {
+            this.id = id;
+            this.center = center;
+            this.location = location;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public LatLng getCenter() {
+            return center;
+        }
+
+        /**
+         * original (not normalized) names
+         */
+        public LocationQuery getLocation() {
+            return location.get();
+        }
+    }
+
+    interface Visitor {
+
+        default void city(String province, String city, Place place) {
+        }
+
+        default void region(String province, String city, String region, Place place) {
+        }
+
+        default void district(String province, String city, String region, String district, Place place) {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * holds the current {@link Gazetteer} snapshot.
+ * the snapshot is loaded once the application is ready and replaced atomically by {@link #reload()},
+ * readers always see either the old or the new tree, never a partially built one.
+ * a {@link GazetteerReloadedEvent} is published after each swap for indexes derived from the snapshot.
+ * with geo.lookup-mode=REPOSITORY nothing is built, a reload just publishes a {@link GeoDataChangedEvent}.
+ * <p>
+ * when geo.snapshot.path is set, every reload is also exported there as a {@link GazetteerSnapshot}
+ * and the next startup memory maps that file instead of reading the repositories,
+ * then refreshes from repositories in background (unless geo.snapshot.refresh=false) on a thread of its own,
+ * a full reload mustn't occupy the common pool the rest of the application shares.
+ */
+@Component
+public class GazetteerHolder {
+
+    private static final Logger logger = LoggerFactory.getLogger(GazetteerHolder.class);
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private DistrictRepository districtRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${geo.lookup-mode:INDEX}")
+    private GeoService.LookupMode lookupMode = GeoService.LookupMode.INDEX;
+
+    @Value("${geo.snapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${geo.snapshot.refresh:true}")
+    private boolean snapshotRefresh = true;
+
+    private final AtomicReference<Gazetteer> current = new AtomicReference<>();
+
+    /**
+     * @return current snapshot or null if it is not loaded yet
+     */
+    public Gazetteer get() {
+        return current.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (lookupMode != GeoService.LookupMode.INDEX) {
+            return;
+        }
+        if (loadSnapshot()) {
+            if (snapshotRefresh) {
+                ExecutorService refresh = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "gazetteer-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                CompletableFuture.runAsync(this::reload, refresh).exceptionally(e -> {
+                    logger.error("gazetteer, refresh failed, keeping the snapshot", e);
+                    return null;
+                });
+                //the thread ends once the refresh is done
+                refresh.shutdown();
+            }
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.error("gazetteer, initial load failed, geo lookups will use repositories", e);
+        }
+    }
+
+    private boolean loadSnapshot() {
+        Path path = snapshotPath();
+        if (path == null || !Files.isRegularFile(path)) {
+            return false;
+        }
+        try {
+            MappedGazetteer gazetteer = MappedGazetteer.open(path);
+            current.set(gazetteer);
+            logger.info("gazetteer, mapped snapshot {} written at {}", path, gazetteer.getCreatedAt());
+            eventPublisher.publishEvent(new GazetteerReloadedEvent(gazetteer));
+            return true;
+        } catch (IOException e) {
+            logger.warn("gazetteer, can't map snapshot {}, loading from repositories", path, e);
+            return false;
+        }
+    }
+
+    private Path snapshotPath() {
+        return snapshotPath == null || snapshotPath.isEmpty() ? null : Paths.get(snapshotPath);
+    }
+
+    /**
+     * rebuilds the snapshot from repositories, must be called whenever cities, regions or districts are changed
+     *
+     * @return the new snapshot or null in the repository mode
+     */
+    public Gazetteer reload() {
+        if (lookupMode != GeoService.LookupMode.INDEX) {
+            eventPublisher.publishEvent(new GeoDataChangedEvent());
+            return null;
+        }
+        Gazetteer gazetteer = Gazetteer.build(cityRepository.findAll(), regionRepository.findAll(), districtRepository.findAll());
+        current.set(gazetteer);
+        logger.info("gazetteer, reloaded");
+        eventPublisher.publishEvent(new GazetteerReloadedEvent(gazetteer));
+        Path path = snapshotPath();
+        if (path != null) {
+            try {
+                GazetteerSnapshot.write(gazetteer, path);
+            } catch (IOException e) {
+                logger.warn("gazetteer, can't export snapshot {}", path, e);
+            }
+        }
+        return gazetteer;
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * published by {@link GazetteerHolder} once a new {@link Gazetteer} snapshot is in place
+ */
+public class GazetteerReloadedEvent extends GeoDataChangedEvent {
+
+    private final Gazetteer gazetteer;
+
+    public GazetteerReloadedEvent(Gazetteer gazetteer) {
+        this.gazetteer = gazetteer;
+    }
+
+    public Gazetteer getGazetteer() {
+        return gazetteer;
+    }
+}
@@ -0,0 +1,160 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * versioned binary file of a {@link Gazetteer}, read in place by {@link MappedGazetteer}.
+ * <pre>
+ * header   magic, version, {@link PersianNormalizer#VERSION} of the keys, created at (epoch millis), city count, region count, district count, strings offset
+ * entries  cities, regions then districts, each level sorted by the utf-8 bytes of its key, {@link #ENTRY_SIZE} bytes each:
+ *          key, id, province, city, region and district (string offsets, -1 for null), lat and lng (NaN without center)
+ * strings  length prefixed utf-8, each distinct string is written once
+ * </pre>
+ * all numbers are big endian.
+ */
+public final class GazetteerSnapshot {
+
+    static final int MAGIC = 0x475A5452;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 36;
+    static final int ENTRY_SIZE = 40;
+    static final int NULL = -1;
+
+    private static final Comparator<Entry> BY_KEY = (a, b) -> compareUnsigned(a.key, b.key);
+
+    private GazetteerSnapshot() {
+    }
+
+    /**
+     * writes the snapshot to a temporary file and moves it over path, so a concurrent reader never sees a partial file
+     */
+    public static void write(Gazetteer gazetteer, Path path) throws IOException {
+        List<Entry> cities = new ArrayList<>();
+        List<Entry> regions = new ArrayList<>();
+        List<Entry> districts = new ArrayList<>();
+        gazetteer.accept(new Gazetteer.Visitor() {
+            @Override
+            public void city(String province, String city, Gazetteer.Place place) {
+                cities.add(new Entry(new LocationQuery(province, city, null, null), place));
+            }
+
+            @Override
+            public void region(String province, String city, String region, Gazetteer.Place place) {
+                regions.add(new Entry(new LocationQuery(province, city, region, null), place));
+            }
+
+            @Override
+            public void district(String province, String city, String region, String district, Gazetteer.Place place) {
+                districts.add(new Entry(new LocationQuery(province, city, region, district), place));
+            }
+        });
+        cities.sort(BY_KEY);
+        regions.sort(BY_KEY);
+        districts.sort(BY_KEY);
+
+        int stringsOffset = HEADER_SIZE + (cities.size() + regions.size() + districts.size()) * ENTRY_SIZE;
+        Strings strings = new Strings(stringsOffset);
+        ByteBuffer head = ByteBuffer.allocate(stringsOffset)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(PersianNormalizer.VERSION)
+                .putLong(System.currentTimeMillis())
+                .putInt(cities.size())
+                .putInt(regions.size())
+                .putInt(districts.size())
+                .putInt(stringsOffset);
+        for (List<Entry> level : Arrays.asList(cities, regions, districts)) {
+            for (Entry e : level) {
+                LocationQuery location = e.location;
+                LatLng center = e.place.getCenter();
+                head.putInt(strings.add(e.key))
+                        .putInt(strings.add(e.place.getId()))
+                        .putInt(strings.add(location.getProvince()))
+                        .putInt(strings.add(location.getCity()))
+                        .putInt(strings.add(location.getRegion()))
+                        .putInt(strings.add(location.getDistrict()))
+                        .putDouble(center == null ? Double.NaN : center.getLat())
+                        .putDouble(center == null ? Double.NaN : center.getLng());
+            }
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                out.write(head.array());
+                strings.bytes.writeTo(out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * lexicographic order of the unsigned bytes, the order {@link MappedGazetteer} searches in
+     */
+    static int compareUnsigned(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    private static final class Entry {
+
+        private final byte[] key;
+        private final LocationQuery location;
+        private final Gazetteer.Place place;
+
+        private Entry(LocationQuery location, Gazetteer.Place place) {
+            this.key = Gazetteer.key(Gazetteer.normalize(location.getProvince(), location.getCity(), location.getRegion(),
+                    location.getDistrict())).getBytes(StandardCharsets.UTF_8);
+            this.location = location;
+            this.place = place;
+        }
+    }
+
+    private static final class Strings {
+
+        private final int base;
+        private final Map<ByteBuffer, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+
+        private Strings(int base) {
+            this.base = base;
+        }
+
+        int add(String s) {
+            return s == null ? NULL : add(s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int add(byte[] utf8) {
+            return offsets.computeIfAbsent(ByteBuffer.wrap(utf8), k -> {
+                int offset = base + bytes.size();
+                bytes.write(utf8.length >>> 24);
+                bytes.write(utf8.length >>> 16);
+                bytes.write(utf8.length >>> 8);
+                bytes.write(utf8.length);
+                bytes.write(utf8, 0, utf8.length);
+                return offset;
+            });
+        }
+    }
+}
@@ -0,0 +1,150 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GazetteerSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String province;
+    private String city;
+    private String region;
+    private String district;
+
+    private City c;
+    private Region r;
+    private District d;
+
+    private Path path;
+
+    @Before
+    public void setUp() throws Exception {
+        province = UUID.randomUUID().toString();
+        city = UUID.randomUUID().toString();
+        region = UUID.randomUUID().toString();
+        district = UUID.randomUUID().toString();
+
+        c = CityTestHelper.createRandomValidCity();
+        c.setProvince(province);
+        c.setCity(city);
+        r = RegionTestHelper.createRandomValidRegion();
+        r.setProvince(province);
+        r.setCity(city);
+        r.setName(region);
+        d = DistrictTestHelper.createRandomValidDistrict();
+        d.setProvince(province);
+        d.setCity(city);
+        d.setRegion(region);
+        d.setName(district);
+
+        path = folder.getRoot().toPath().resolve("gazetteer.bin");
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        d.setCenter(null);
+        GazetteerSnapshot.write(Gazetteer.build(Collections.singletonList(c), Collections.singletonList(r),
+                Collections.singletonList(d)), path);
+
+        Gazetteer gazetteer = MappedGazetteer.open(path);
+
+        assertThat(gazetteer.findDistrict(province, city, region, district).getId()).isEqualTo(d.getId());
+        assertThat(gazetteer.findDistrict(province, city, region, district).getCenter()).isNull();
+        assertThat(gazetteer.findRegion(province, city, region).getId()).isEqualTo(r.getId());
+        assertThat(gazetteer.findRegion(province, city, region).getCenter()).isEqualTo(r.getCenter());
+        assertThat(gazetteer.findCity(province, city).getId()).isEqualTo(c.getId());
+        assertThat(gazetteer.findCity(province, city).getCenter()).isEqualTo(c.getCenter());
+
+        String unknown = UUID.randomUUID().toString();
+        assertThat(gazetteer.findDistrict(province, city, region, unknown)).isNull();
+        assertThat(gazetteer.findRegion(province, unknown, region)).isNull();
+        assertThat(gazetteer.findCity(unknown, city)).isNull();
+        assertThat(gazetteer.findCity(null, null)).isNull();
+    }
+
+    @Test
+    public void manyCities() throws Exception {
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            City city = CityTestHelper.createRandomValidCity();
+            city.setProvince(province);
+            city.setCity("شهر " + i);
+            cities.add(city);
+        }
+        GazetteerSnapshot.write(Gazetteer.build(cities, Collections.emptyList(), Collections.emptyList()), path);
+
+        Gazetteer gazetteer = MappedGazetteer.open(path);
+
+        for (City city : cities) {
+            assertThat(gazetteer.findCity(province, city.getCity()).getId()).isEqualTo(city.getId());
+        }
+        //persian digits are normalized in the probe, keys are stored normalized
+        assertThat(gazetteer.findCity(province, "شهر ۴۲").getId()).isEqualTo(cities.get(42).getId());
+    }
+
+    @Test
+    public void originalNamesAreKept() throws Exception {
+        c.setProvince("كرمانشاه");
+        c.setCity("كرمانشاه");
+        GazetteerSnapshot.write(Gazetteer.build(Collections.singletonList(c), Collections.emptyList(), Collections.emptyList()), path);
+
+        List<String> names = new ArrayList<>();
+        MappedGazetteer.open(path).accept(new Gazetteer.Visitor() {
+            @Override
+            public void city(String province, String city, Gazetteer.Place place) {
+                names.add(province);
+                names.add(city);
+            }
+        });
+
+        assertThat(names).containsExactly("كرمانشاه", "كرمانشاه");
+        assertThat(MappedGazetteer.open(path).findCity("کرمانشاه", "کرمانشاه").getId()).isEqualTo(c.getId());
+    }
+
+    @Test
+    public void notASnapshot() throws Exception {
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThatThrownBy(() -> MappedGazetteer.open(path)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void otherNormalizerVersion() throws Exception {
+        GazetteerSnapshot.write(Gazetteer.build(Collections.singletonList(c), Collections.emptyList(), Collections.emptyList()), path);
+        byte[] bytes = Files.readAllBytes(path);
+        //normalizer version follows magic and format version
+        ByteBuffer.wrap(bytes).putInt(8, PersianNormalizer.VERSION + 1);
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> MappedGazetteer.open(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("normalizer version");
+    }
+
+    @Test
+    public void entryOutsideTheFile() throws Exception {
+        GazetteerSnapshot.write(Gazetteer.build(Collections.singletonList(c), Collections.emptyList(), Collections.emptyList()), path);
+        byte[] bytes = Files.readAllBytes(path);
+        //id offset of the only city
+        ByteBuffer.wrap(bytes).putInt(GazetteerSnapshot.HEADER_SIZE + 4, bytes.length - 2);
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> MappedGazetteer.open(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("outside the file");
+    }
+}
@@ -0,0 +1,97 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GazetteerTest {
+
+    private String province;
+    private String city;
+    private String region;
+    private String district;
+
+    private City c;
+    private Region r;
+    private District d;
+
+    private Gazetteer gazetteer;
+
+    @Before
+    public void setUp() throws Exception {
+        province = UUID.randomUUID().toString();
+        city = UUID.randomUUID().toString();
+        region = UUID.randomUUID().toString();
+        district = UUID.randomUUID().toString();
+
+        c = CityTestHelper.createRandomValidCity();
+        c.setProvince(province);
+        c.setCity(city);
+        r = RegionTestHelper.createRandomValidRegion();
+        r.setProvince(province);
+        r.setCity(city);
+        r.setName(region);
+        d = DistrictTestHelper.createRandomValidDistrict();
+        d.setProvince(province);
+        d.setCity(city);
+        d.setRegion(region);
+        d.setName(district);
+
+        gazetteer = Gazetteer.build(Collections.singletonList(c), Collections.singletonList(r), Collections.singletonList(d));
+    }
+
+    @Test
+    public void findsEveryLevel() throws Exception {
+        assertThat(gazetteer.findDistrict(province, city, region, district).getId()).isEqualTo(d.getId());
+        assertThat(gazetteer.findDistrict(province, city, region, district).getCenter()).isEqualTo(d.getCenter());
+        assertThat(gazetteer.findRegion(province, city, region).getId()).isEqualTo(r.getId());
+        assertThat(gazetteer.findRegion(province, city, region).getCenter()).isEqualTo(r.getCenter());
+        assertThat(gazetteer.findCity(province, city).getId()).isEqualTo(c.getId());
+        assertThat(gazetteer.findCity(province, city).getCenter()).isEqualTo(c.getCenter());
+    }
+
+    @Test
+    public void unknownNames() throws Exception {
+        String unknown = UUID.randomUUID().toString();
+
+        assertThat(gazetteer.findDistrict(province, city, region, unknown)).isNull();
+        assertThat(gazetteer.findDistrict(province, city, unknown, district)).isNull();
+        assertThat(gazetteer.findRegion(province, unknown, region)).isNull();
+        assertThat(gazetteer.findCity(unknown, city)).isNull();
+        assertThat(gazetteer.findCity(null, null)).isNull();
+    }
+
+    @Test
+    public void regionWithoutCityRecord() throws Exception {
+        gazetteer = Gazetteer.build(Collections.emptyList(), Collections.singletonList(r), Collections.emptyList());
+
+        assertThat(gazetteer.findRegion(province, city, region).getId()).isEqualTo(r.getId());
+        //region is indexed on its own, there is still no city record
+        assertThat(gazetteer.findCity(province, city)).isNull();
+    }
+
+    @Test
+    public void placeWithoutCenter() throws Exception {
+        d.setCenter(null);
+        gazetteer = Gazetteer.build(Collections.singletonList(c), Collections.singletonList(r), Collections.singletonList(d));
+
+        assertThat(gazetteer.findDistrict(province, city, region, district).getId()).isEqualTo(d.getId());
+        assertThat(gazetteer.findDistrict(province, city, region, district).getCenter()).isNull();
+    }
+
+    @Test
+    public void spellingVariants() throws Exception {
+        c.setProvince("كرمانشاه");
+        c.setCity("كرمانشاه");
+        r.setProvince("كرمانشاه");
+        r.setCity("كرمانشاه");
+        r.setName("منطقه ۱");
+        gazetteer = Gazetteer.build(Collections.singletonList(c), Collections.singletonList(r), Collections.emptyList());
+
+        //persian kaf, zwnj and arabic-indic digit
+        assertThat(gazetteer.findCity("کرمانشاه", "کرمانشاه").getId()).isEqualTo(c.getId());
+        assertThat(gazetteer.findRegion("کرمانشاه", "کرمانشاه", "منطقه\u200C١").getId()).isEqualTo(r.getId());
+    }
+}
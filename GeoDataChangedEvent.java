@@ -0,0 +1,6 @@
+/**
+ * published by {@link GazetteerHolder#reload()} whenever cities, regions or districts are changed,
+ * in every lookup mode, for caches of repository lookups
+ */
+public class GeoDataChangedEvent {
+}
@@ -0,0 +1,97 @@
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * instrumentation of {@link GeoService}:
+ * <ul>
+ * <li>geo.guess.resolved, number of locations resolved at each level (district, region, city or the tehran default)</li>
+ * <li>geo.repository.calls, latency of repository calls per level</li>
+ * <li>geo.centerless, number of distinct records without center seen within the log interval per level</li>
+ * </ul>
+ * a record without center is logged the first time it is seen only, and again after geo.centerless.log-interval
+ * or the next {@link GeoDataChangedEvent}, so a bad record doesn't flood the log. the warning is written on the
+ * calling (request) thread, once per record and interval, every other sighting only checks the cache.
+ * seen ids are kept in a bounded expiring cache, so new bad records are still logged once it is full.
+ */
+@Component
+public class GeoMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeoService.class);
+
+    private static final int MAX_TRACKED_CENTERLESS = 10000;
+
+    public enum Level {
+        DISTRICT, REGION, CITY, DEFAULT
+    }
+
+    private final Map<Level, Counter> resolved = new EnumMap<>(Level.class);
+    private final Map<Level, Timer> repositoryCalls = new EnumMap<>(Level.class);
+    private final Map<Level, Cache<String, Boolean>> centerless = new EnumMap<>(Level.class);
+
+    public GeoMetrics(MeterRegistry meterRegistry) {
+        this(meterRegistry, Duration.ofHours(24));
+    }
+
+    @Autowired
+    public GeoMetrics(MeterRegistry meterRegistry,
+                      @Value("${geo.centerless.log-interval:PT24H}") Duration logInterval) {
+        for (Level level : Level.values()) {
+            String tag = level.name().toLowerCase();
+            resolved.put(level, Counter.builder("geo.guess.resolved")
+                    .description("locations resolved by guessLocation")
+                    .tag("level", tag)
+                    .register(meterRegistry));
+            if (level != Level.DEFAULT) {
+                repositoryCalls.put(level, Timer.builder("geo.repository.calls")
+                        .description("geo repository calls made by guessLocation")
+                        .tag("level", tag)
+                        .register(meterRegistry));
+                Cache<String, Boolean> ids = Caffeine.newBuilder()
+                        .maximumSize(MAX_TRACKED_CENTERLESS)
+                        .expireAfterWrite(logInterval)
+                        .build();
+                centerless.put(level, ids);
+                Gauge.builder("geo.centerless", ids, Cache::estimatedSize)
+                        .description("distinct geo records without center")
+                        .tag("level", tag)
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    public LatLng resolved(Level level, LatLng center) {
+        resolved.get(level).increment();
+        return center;
+    }
+
+    public <T> T repositoryCall(Level level, Supplier<T> call) {
+        return repositoryCalls.get(level).record(call);
+    }
+
+    public void centerless(Level level, String id) {
+        if (centerless.get(level).asMap().putIfAbsent(id, Boolean.TRUE) == null) {
+            logger.warn("guessLocation, {} {} doesn't have center", level.name().toLowerCase(), id);
+        }
+    }
+
+    @EventListener(GeoDataChangedEvent.class)
+    public void clearCenterless() {
+        centerless.values().forEach(Cache::invalidateAll);
+    }
+}
@@ -0,0 +1,50 @@
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * bounded cache of (province, city, region, district) lookups known to have no record,
+ * so misspelled names don't hit the database on every {@link GeoService#guessLocation} of the repository mode.
+ * keys of different levels never collide, a district key has all four parts, a region key has no district
+ * and a city key has neither region nor district.
+ * cleared on every {@link GeoDataChangedEvent} (published by {@link GazetteerHolder#reload()} in the repository mode too),
+ * the ttl bounds staleness of changes made without a reload.
+ */
+@Component
+public class GeoNegativeCache {
+
+    @Value("${geo.negative-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${geo.negative-cache.ttl:PT1H}")
+    private Duration ttl;
+
+    private Cache<LocationQuery, Boolean> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean isMissing(LocationQuery key) {
+        return cache.getIfPresent(key) != null;
+    }
+
+    public void markMissing(LocationQuery key) {
+        cache.put(key, Boolean.TRUE);
+    }
+
+    @EventListener(GeoDataChangedEvent.class)
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,77 @@
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * set based reads of the reference data for {@link GeoService#guessLocations}.
+ * each query matches whole tuples, names are grouped by their parent (province, city, region)
+ * so a common name (e.g. "مرکزی") only matches the rows under the parents that were asked for.
+ */
+@Repository
+public class GeoReferenceRepository {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * @param keys full (province, city, region, district) tuples
+     */
+    public List<District> findDistricts(Collection<LocationQuery> keys) {
+        return find(keys, District.class, k -> Arrays.asList(k.getProvince(), k.getCity(), k.getRegion()),
+                LocationQuery::getDistrict, "name", "province", "city", "region");
+    }
+
+    /**
+     * @param keys (province, city, region) tuples, district is ignored
+     */
+    public List<Region> findRegions(Collection<LocationQuery> keys) {
+        return find(keys, Region.class, k -> Arrays.asList(k.getProvince(), k.getCity()),
+                LocationQuery::getRegion, "name", "province", "city");
+    }
+
+    /**
+     * @param keys (province, city) tuples, region and district are ignored
+     */
+    public List<City> findCities(Collection<LocationQuery> keys) {
+        return find(keys, City.class, k -> Collections.singletonList(k.getProvince()),
+                LocationQuery::getCity, "city", "province");
+    }
+
+    /**
+     * one query with a clause per parent: parent fields equal and name in the names asked under that parent
+     */
+    private <T> List<T> find(Collection<LocationQuery> keys, Class<T> type, Function<LocationQuery, List<String>> parent,
+                             Function<LocationQuery, String> name, String nameField, String... parentFields) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<List<String>, Set<String>> names = new LinkedHashMap<>();
+        for (LocationQuery key : keys) {
+            names.computeIfAbsent(parent.apply(key), p -> new LinkedHashSet<>()).add(name.apply(key));
+        }
+
+        List<Criteria> clauses = new ArrayList<>(names.size());
+        for (Map.Entry<List<String>, Set<String>> e : names.entrySet()) {
+            Criteria clause = Criteria.where(nameField).in(e.getValue());
+            for (int i = 0; i < parentFields.length; i++) {
+                clause = clause.and(parentFields[i]).is(e.getKey().get(i));
+            }
+            clauses.add(clause);
+        }
+        Criteria criteria = clauses.size() == 1 ? clauses.get(0) : new Criteria().orOperator(clauses.toArray(new Criteria[0]));
+        return mongoTemplate.find(Query.query(criteria), type);
+    }
+}
@@ -1,42 +1,301 @@
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 public class GeoService {
 
+    /**
+     * upper limit of tuples in one query of {@link #guessLocations}, larger sets are queried in batches
+     */
+    static final int MAX_IN_SIZE = 1000;
+
+    /**
+     * INDEX resolves locations from the preloaded {@link Gazetteer} (falls back to repositories until it is loaded)
+     * and tolerates persian spelling variants, REPOSITORY queries the database on every call with exact names
+     */
+    public enum LookupMode {
+        INDEX, REPOSITORY
+    }
+
+    @Autowired
+    private GazetteerHolder gazetteerHolder;
+
+    @Autowired
+    private GeoNegativeCache negativeCache;
+
+    @Autowired
+    private GeoMetrics geoMetrics;
+
+    @Autowired
+    private GeoReferenceRepository geoReferenceRepository;
+
+    @Value("${geo.lookup-mode:INDEX}")
+    private LookupMode lookupMode = LookupMode.INDEX;
+
     public LatLng guessLocation(String province, String city, String region, String district) {
+        Gazetteer gazetteer = lookupMode == LookupMode.INDEX ? gazetteerHolder.get() : null;
+        if (gazetteer != null) {
+            return guessLocation(gazetteer, province, city, region, district);
+        }
         if (province != null) {
             if (city != null) {
                 if (region != null) {
                     if (district != null) {
-                        District d = districtRepository.findByProvinceAndCityAndRegionAndName(province, city, region, district);
+                        District d = findDistrict(province, city, region, district);
                         if (d != null) {
                             if (d.getCenter() != null) {
-                                return d.getCenter();
-                            } else if (logger.isWarnEnabled()) {
-                                logger.warn("guessLocation, district {} doesn't have center", d.getId());
+                                return geoMetrics.resolved(GeoMetrics.Level.DISTRICT, d.getCenter());
+                            } else {
+                                geoMetrics.centerless(GeoMetrics.Level.DISTRICT, d.getId());
                             }
                         }
                     }
                     //at this point district wasn't found -> find center of region
-                    Region r = regionRepository.findByProvinceAndCityAndName(province, city, region);
+                    Region r = findRegion(province, city, region);
                     if (r != null) {
                         if (r.getCenter() != null) {
-                            return r.getCenter();
-                        } else if (logger.isWarnEnabled()) {
-                            logger.warn("guessLocation, region {} doesn't have center", r.getId());
+                            return geoMetrics.resolved(GeoMetrics.Level.REGION, r.getCenter());
+                        } else {
+                            geoMetrics.centerless(GeoMetrics.Level.REGION, r.getId());
                         }
                     }
                 }
                 //at this point region wasn't found -> find center of city
-                City c = cityRepository.findByProvinceAndCity(province, city);
+                City c = findCity(province, city);
                 if (c != null) {
                     if (c.getCenter() != null) {
-                        return c.getCenter();
-                    } else if (logger.isWarnEnabled()) {
-                        logger.warn("guessLocation, city {} doesn't have center", c.getId());
+                        return geoMetrics.resolved(GeoMetrics.Level.CITY, c.getCenter());
+                    } else {
+                        geoMetrics.centerless(GeoMetrics.Level.CITY, c.getId());
                     }
                 }
             }
         }
         //at this point just return center of tehran
+        return geoMetrics.resolved(GeoMetrics.Level.DEFAULT, tehranCenter());
+    }
+
+    private District findDistrict(String province, String city, String region, String district) {
+        LocationQuery key = new LocationQuery(province, city, region, district);
+        if (negativeCache.isMissing(key)) {
+            return null;
+        }
+        District d = geoMetrics.repositoryCall(GeoMetrics.Level.DISTRICT,
+                () -> districtRepository.findByProvinceAndCityAndRegionAndName(province, city, region, district));
+        if (d == null) {
+            negativeCache.markMissing(key);
+        }
+        return d;
+    }
+
+    private Region findRegion(String province, String city, String region) {
+        LocationQuery key = new LocationQuery(province, city, region, null);
+        if (negativeCache.isMissing(key)) {
+            return null;
+        }
+        Region r = geoMetrics.repositoryCall(GeoMetrics.Level.REGION,
+                () -> regionRepository.findByProvinceAndCityAndName(province, city, region));
+        if (r == null) {
+            negativeCache.markMissing(key);
+        }
+        return r;
+    }
+
+    private City findCity(String province, String city) {
+        LocationQuery key = new LocationQuery(province, city, null, null);
+        if (negativeCache.isMissing(key)) {
+            return null;
+        }
+        City c = geoMetrics.repositoryCall(GeoMetrics.Level.CITY,
+                () -> cityRepository.findByProvinceAndCity(province, city));
+        if (c == null) {
+            negativeCache.markMissing(key);
+        }
+        return c;
+    }
+
+    /**
+     * same fallback chain as the repository path, resolved with one index probe per level.
+     * arguments are normalized once, so persian/arabic spelling variants match the reference data
+     */
+    private LatLng guessLocation(Gazetteer gazetteer, String province, String city, String region, String district) {
+        if (province != null) {
+            if (city != null) {
+                LocationQuery normalized = Gazetteer.normalize(province, city, region, district);
+                if (region != null) {
+                    if (district != null) {
+                        Gazetteer.Place d = gazetteer.findDistrict(normalized);
+                        if (d != null) {
+                            if (d.getCenter() != null) {
+                                return geoMetrics.resolved(GeoMetrics.Level.DISTRICT, d.getCenter());
+                            } else {
+                                geoMetrics.centerless(GeoMetrics.Level.DISTRICT, d.getId());
+                            }
+                        }
+                    }
+                    Gazetteer.Place r = gazetteer.findRegion(normalized);
+                    if (r != null) {
+                        if (r.getCenter() != null) {
+                            return geoMetrics.resolved(GeoMetrics.Level.REGION, r.getCenter());
+                        } else {
+                            geoMetrics.centerless(GeoMetrics.Level.REGION, r.getId());
+                        }
+                    }
+                }
+                Gazetteer.Place c = gazetteer.findCity(normalized);
+                if (c != null) {
+                    if (c.getCenter() != null) {
+                        return geoMetrics.resolved(GeoMetrics.Level.CITY, c.getCenter());
+                    } else {
+                        geoMetrics.centerless(GeoMetrics.Level.CITY, c.getId());
+                    }
+                }
+            }
+        }
+        return geoMetrics.resolved(GeoMetrics.Level.DEFAULT, tehranCenter());
+    }
+
+    /**
+     * bulk version of {@link #guessLocation} with the same district -> region -> city -> tehran fallback.
+     * equal queries are resolved once and each fallback level costs a set based repository query per
+     * {@link #MAX_IN_SIZE} distinct tuples, scoped by their parents (no query at all when the gazetteer is loaded).
+     * a null query resolves to the tehran default like a query without province.
+     *
+     * @return centers in the same order as queries
+     */
+    public List<LatLng> guessLocations(Collection<LocationQuery> queries) {
+        Set<LocationQuery> distinct = new LinkedHashSet<>(queries);
+        distinct.remove(null);
+        Map<LocationQuery, LatLng> resolved = new HashMap<>(distinct.size() * 2);
+
+        Gazetteer gazetteer = lookupMode == LookupMode.INDEX ? gazetteerHolder.get() : null;
+        if (gazetteer != null) {
+            for (LocationQuery q : distinct) {
+                resolved.put(q, guessLocation(gazetteer, q.getProvince(), q.getCity(), q.getRegion(), q.getDistrict()));
+            }
+        } else {
+            guessLocations(distinct, resolved);
+        }
+
+        List<LatLng> result = new ArrayList<>(queries.size());
+        for (LocationQuery q : queries) {
+            result.add(q == null ? geoMetrics.resolved(GeoMetrics.Level.DEFAULT, tehranCenter()) : resolved.get(q));
+        }
+        return result;
+    }
+
+    private void guessLocations(Set<LocationQuery> distinct, Map<LocationQuery, LatLng> resolved) {
+        Set<LocationQuery> pending = new HashSet<>(distinct);
+
+        Set<LocationQuery> districtKeys = new HashSet<>();
+        for (LocationQuery q : pending) {
+            if (q.getProvince() != null && q.getCity() != null && q.getRegion() != null && q.getDistrict() != null) {
+                districtKeys.add(q);
+            }
+        }
+        if (!districtKeys.isEmpty()) {
+            Map<LocationQuery, District> districts = byKey(
+                    findIn(GeoMetrics.Level.DISTRICT, districtKeys, geoReferenceRepository::findDistricts),
+                    d -> new LocationQuery(d.getProvince(), d.getCity(), d.getRegion(), d.getName()));
+            for (LocationQuery q : distinct) {
+                District d = districts.get(q);
+                if (d != null) {
+                    if (d.getCenter() != null) {
+                        resolved.put(q, geoMetrics.resolved(GeoMetrics.Level.DISTRICT, d.getCenter()));
+                        pending.remove(q);
+                    } else {
+                        geoMetrics.centerless(GeoMetrics.Level.DISTRICT, d.getId());
+                    }
+                }
+            }
+        }
+
+        //at this point remaining districts weren't found -> find centers of regions
+        Set<LocationQuery> regionKeys = new HashSet<>();
+        for (LocationQuery q : pending) {
+            if (q.getProvince() != null && q.getCity() != null && q.getRegion() != null) {
+                regionKeys.add(q.toRegion());
+            }
+        }
+        if (!regionKeys.isEmpty()) {
+            Map<LocationQuery, Region> regions = byKey(
+                    findIn(GeoMetrics.Level.REGION, regionKeys, geoReferenceRepository::findRegions),
+                    r -> new LocationQuery(r.getProvince(), r.getCity(), r.getName(), null));
+            for (LocationQuery q : distinct) {
+                Region r = pending.contains(q) ? regions.get(q.toRegion()) : null;
+                if (r != null) {
+                    if (r.getCenter() != null) {
+                        resolved.put(q, geoMetrics.resolved(GeoMetrics.Level.REGION, r.getCenter()));
+                        pending.remove(q);
+                    } else {
+                        geoMetrics.centerless(GeoMetrics.Level.REGION, r.getId());
+                    }
+                }
+            }
+        }
+
+        //at this point remaining regions weren't found -> find centers of cities
+        Set<LocationQuery> cityKeys = new HashSet<>();
+        for (LocationQuery q : pending) {
+            if (q.getProvince() != null && q.getCity() != null) {
+                cityKeys.add(q.toCity());
+            }
+        }
+        if (!cityKeys.isEmpty()) {
+            Map<LocationQuery, City> cities = byKey(
+                    findIn(GeoMetrics.Level.CITY, cityKeys, geoReferenceRepository::findCities),
+                    c -> new LocationQuery(c.getProvince(), c.getCity(), null, null));
+            for (LocationQuery q : distinct) {
+                City c = pending.contains(q) ? cities.get(q.toCity()) : null;
+                if (c != null) {
+                    if (c.getCenter() != null) {
+                        resolved.put(q, geoMetrics.resolved(GeoMetrics.Level.CITY, c.getCenter()));
+                        pending.remove(q);
+                    } else {
+                        geoMetrics.centerless(GeoMetrics.Level.CITY, c.getId());
+                    }
+                }
+            }
+        }
+
+        //at this point just return center of tehran
+        for (LocationQuery q : pending) {
+            resolved.put(q, geoMetrics.resolved(GeoMetrics.Level.DEFAULT, tehranCenter()));
+        }
+    }
+
+    /**
+     * one query per batch of at most {@link #MAX_IN_SIZE} tuples, each batch is timed as a repository call
+     */
+    private <T> List<T> findIn(GeoMetrics.Level level, Set<LocationQuery> keys,
+                               Function<Collection<LocationQuery>, ? extends Collection<T>> query) {
+        List<LocationQuery> all = new ArrayList<>(keys);
+        List<T> result = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += MAX_IN_SIZE) {
+            List<LocationQuery> batch = all.subList(from, Math.min(all.size(), from + MAX_IN_SIZE));
+            result.addAll(geoMetrics.repositoryCall(level, () -> query.apply(batch)));
+        }
+        return result;
+    }
+
+    private static <T> Map<LocationQuery, T> byKey(Collection<T> entities, Function<T, LocationQuery> key) {
+        Map<LocationQuery, T> result = new HashMap<>(entities.size() * 2);
+        for (T entity : entities) {
+            result.putIfAbsent(key.apply(entity), entity);
+        }
+        return result;
+    }
+
+    private static LatLng tehranCenter() {
         return new LatLng(35.6922882927872D, 51.3862157380208D);
     }
 
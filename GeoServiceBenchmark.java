@@ -0,0 +1,109 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * {@link GeoService#guessLocation} at each fallback depth, in both lookup modes.
+ * repositories are stub only mocks answering from memory, so REPOSITORY numbers show the service overhead,
+ * not the database round trips it saves. the negative cache never reports a miss, otherwise the unknown names
+ * of every depth below DISTRICT would skip their repository lookups after the first invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoServiceBenchmark {
+
+    public enum Depth {
+        DISTRICT, REGION, CITY, DEFAULT
+    }
+
+    private static final String PROVINCE = "تهران";
+    private static final String CITY = "تهران";
+    private static final String REGION = "منطقه ۳";
+    private static final String DISTRICT = "ونک";
+    private static final String UNKNOWN = "نامعلوم";
+
+    @Param({"INDEX", "REPOSITORY"})
+    private GeoService.LookupMode lookupMode;
+
+    @Param({"DISTRICT", "REGION", "CITY", "DEFAULT"})
+    private Depth depth;
+
+    private GeoService geoService;
+
+    private String city;
+    private String region;
+    private String district;
+
+    @Setup
+    public void setUp() {
+        City c = CityTestHelper.createRandomValidCity();
+        c.setProvince(PROVINCE);
+        c.setCity(CITY);
+        Region r = RegionTestHelper.createRandomValidRegion();
+        r.setProvince(PROVINCE);
+        r.setCity(CITY);
+        r.setName(REGION);
+        District d = DistrictTestHelper.createRandomValidDistrict();
+        d.setProvince(PROVINCE);
+        d.setCity(CITY);
+        d.setRegion(REGION);
+        d.setName(DISTRICT);
+
+        DistrictRepository districtRepository = mock(DistrictRepository.class, withSettings().stubOnly());
+        given(districtRepository.findByProvinceAndCityAndRegionAndName(anyString(), anyString(), anyString(), anyString()))
+                .willAnswer(invocation -> DISTRICT.equals(invocation.getArgument(3)) ? d : null);
+        RegionRepository regionRepository = mock(RegionRepository.class, withSettings().stubOnly());
+        given(regionRepository.findByProvinceAndCityAndName(anyString(), anyString(), anyString()))
+                .willAnswer(invocation -> REGION.equals(invocation.getArgument(2)) ? r : null);
+        CityRepository cityRepository = mock(CityRepository.class, withSettings().stubOnly());
+        given(cityRepository.findByProvinceAndCity(anyString(), anyString()))
+                .willAnswer(invocation -> CITY.equals(invocation.getArgument(1)) ? c : null);
+
+        GazetteerHolder gazetteerHolder = mock(GazetteerHolder.class, withSettings().stubOnly());
+        given(gazetteerHolder.get()).willReturn(Gazetteer.build(Collections.singletonList(c), Collections.singletonList(r),
+                Collections.singletonList(d)));
+
+        GeoNegativeCache negativeCache = mock(GeoNegativeCache.class, withSettings().stubOnly());
+
+        geoService = new GeoService();
+        ReflectionTestUtils.setField(geoService, "districtRepository", districtRepository);
+        ReflectionTestUtils.setField(geoService, "regionRepository", regionRepository);
+        ReflectionTestUtils.setField(geoService, "cityRepository", cityRepository);
+        ReflectionTestUtils.setField(geoService, "gazetteerHolder", gazetteerHolder);
+        ReflectionTestUtils.setField(geoService, "negativeCache", negativeCache);
+        ReflectionTestUtils.setField(geoService, "geoMetrics", new GeoMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(geoService, "lookupMode", lookupMode);
+
+        city = depth == Depth.DEFAULT ? UNKNOWN : CITY;
+        region = depth == Depth.DEFAULT || depth == Depth.CITY ? UNKNOWN : REGION;
+        district = depth == Depth.DISTRICT ? DISTRICT : UNKNOWN;
+    }
+
+    @Benchmark
+    public LatLng guessLocation() {
+        return geoService.guessLocation(PROVINCE, city, region, district);
+    }
+}
@@ -2,6 +2,7 @@
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.test.context.TestPropertySource;
 
 import java.util.UUID;
 
@@ -11,6 +12,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+@TestPropertySource(properties = "geo.lookup-mode=REPOSITORY")
 public class GeoServiceGuessLocationTest extends GeoServiceTestParent {
 
     @Before
@@ -224,4 +226,31 @@ public class GeoServiceGuessLocationTest extends GeoServiceTestParent {
 
         nothingElseMatters();
     }
+
+    @Test
+    public void unknownNamesAreQueriedOnce() throws Exception {
+        String province = UUID.randomUUID().toString();
+        String city = UUID.randomUUID().toString();
+        String region = UUID.randomUUID().toString();
+        String district = UUID.randomUUID().toString();
+
+        //district and region not found
+        given(districtRepository.findByProvinceAndCityAndRegionAndName(eq(province), eq(city), eq(region), eq(district))).willReturn(null);
+        given(regionRepository.findByProvinceAndCityAndName(eq(province), eq(city), eq(region))).willReturn(null);
+        //city
+        City c = CityTestHelper.createRandomValidCity();
+        given(cityRepository.findByProvinceAndCity(eq(province), eq(city))).willReturn(c);
+
+        assertThat(geoService.guessLocation(province, city, region, district)).isEqualTo(c.getCenter());
+        assertThat(geoService.guessLocation(province, city, region, district)).isEqualTo(c.getCenter());
+
+        verify(geoService, times(2)).guessLocation(eq(province), eq(city), eq(region), eq(district));
+
+        //misses are remembered, found city is not
+        verify(districtRepository, times(1)).findByProvinceAndCityAndRegionAndName(eq(province), eq(city), eq(region), eq(district));
+        verify(regionRepository, times(1)).findByProvinceAndCityAndName(eq(province), eq(city), eq(region));
+        verify(cityRepository, times(2)).findByProvinceAndCity(eq(province), eq(city));
+
+        nothingElseMatters();
+    }
 }
@@ -0,0 +1,192 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@TestPropertySource(properties = "geo.lookup-mode=REPOSITORY")
+public class GeoServiceGuessLocationsTest extends GeoServiceTestParent {
+
+    @MockBean
+    private GeoReferenceRepository geoReferenceRepository;
+
+    @Before
+    public void setUp() throws Exception {
+        setupMocks();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        nothingElseMatters();
+        verifyNoMoreInteractions(geoReferenceRepository);
+    }
+
+    @Test
+    public void everyLevelInInputOrder() throws Exception {
+        String province = UUID.randomUUID().toString();
+        String city = UUID.randomUUID().toString();
+        String region = UUID.randomUUID().toString();
+        String district = UUID.randomUUID().toString();
+
+        District d = DistrictTestHelper.createRandomValidDistrict();
+        d.setProvince(province);
+        d.setCity(city);
+        d.setRegion(region);
+        d.setName(district);
+        given(geoReferenceRepository.findDistricts(anyCollection())).willReturn(Collections.singletonList(d));
+
+        Region r = RegionTestHelper.createRandomValidRegion();
+        r.setProvince(province);
+        r.setCity(city);
+        r.setName(region);
+        given(geoReferenceRepository.findRegions(anyCollection())).willReturn(Collections.singletonList(r));
+
+        City c = CityTestHelper.createRandomValidCity();
+        c.setProvince(province);
+        c.setCity(city);
+        given(geoReferenceRepository.findCities(anyCollection())).willReturn(Collections.singletonList(c));
+
+        LocationQuery districtQuery = new LocationQuery(province, city, region, district);
+        LocationQuery regionQuery = new LocationQuery(province, city, region, UUID.randomUUID().toString());
+        LocationQuery cityQuery = new LocationQuery(province, city, null, null);
+        LocationQuery unknownQuery = new LocationQuery(UUID.randomUUID().toString(), city, region, district);
+
+        List<LatLng> result = geoService.guessLocations(Arrays.asList(cityQuery, districtQuery, unknownQuery, regionQuery, districtQuery));
+
+        LatLng tehranCenter = new LatLng(35.6922882927872D, 51.3862157380208D);
+
+        assertThat(result).hasSize(5);
+        assertThat(result.get(0)).isEqualTo(c.getCenter());
+        assertThat(result.get(1)).isEqualTo(d.getCenter());
+        assertThat(result.get(2)).isEqualToComparingFieldByField(tehranCenter);
+        assertThat(result.get(3)).isEqualTo(r.getCenter());
+        assertThat(result.get(4)).isEqualTo(d.getCenter());
+
+        verify(geoService, times(1)).guessLocations(anyCollection());
+
+        //one query per level no matter how many inputs
+        verify(geoReferenceRepository, times(1)).findDistricts(anyCollection());
+        verify(geoReferenceRepository, times(1)).findRegions(anyCollection());
+        verify(geoReferenceRepository, times(1)).findCities(anyCollection());
+
+        nothingElseMatters();
+    }
+
+    @Test
+    public void districtWithoutCenter() throws Exception {
+        String province = UUID.randomUUID().toString();
+        String city = UUID.randomUUID().toString();
+        String region = UUID.randomUUID().toString();
+        String district = UUID.randomUUID().toString();
+
+        //district without center
+        District d = DistrictTestHelper.createRandomValidDistrict().setCenter(null);
+        d.setProvince(province);
+        d.setCity(city);
+        d.setRegion(region);
+        d.setName(district);
+        given(geoReferenceRepository.findDistricts(anyCollection())).willReturn(Collections.singletonList(d));
+
+        Region r = RegionTestHelper.createRandomValidRegion();
+        r.setProvince(province);
+        r.setCity(city);
+        r.setName(region);
+        given(geoReferenceRepository.findRegions(anyCollection())).willReturn(Collections.singletonList(r));
+
+        //must return center of region
+        List<LatLng> result = geoService.guessLocations(Collections.singletonList(new LocationQuery(province, city, region, district)));
+
+        assertThat(result).containsExactly(r.getCenter());
+
+        verify(geoService, times(1)).guessLocations(anyCollection());
+
+        verify(geoReferenceRepository, times(1)).findDistricts(anyCollection());
+        verify(geoReferenceRepository, times(1)).findRegions(anyCollection());
+
+        nothingElseMatters();
+    }
+
+    @Test
+    public void nothingToQuery() throws Exception {
+        LatLng tehranCenter = new LatLng(35.6922882927872D, 51.3862157380208D);
+
+        List<LatLng> result = geoService.guessLocations(Collections.singletonList(new LocationQuery(null, null, null, null)));
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0)).isEqualToComparingFieldByField(tehranCenter);
+
+        verify(geoService, times(1)).guessLocations(anyCollection());
+
+        nothingElseMatters();
+    }
+
+    @Test
+    public void namesAreQueriedInBatches() throws Exception {
+        String province = UUID.randomUUID().toString();
+        String city = UUID.randomUUID().toString();
+        String region = UUID.randomUUID().toString();
+
+        List<LocationQuery> queries = new ArrayList<>();
+        for (int i = 0; i < GeoService.MAX_IN_SIZE + 1; i++) {
+            queries.add(new LocationQuery(province, city, region, UUID.randomUUID().toString()));
+        }
+
+        List<LatLng> result = geoService.guessLocations(queries);
+
+        assertThat(result).hasSize(queries.size());
+
+        verify(geoService, times(1)).guessLocations(anyCollection());
+
+        verify(geoReferenceRepository, times(2)).findDistricts(anyCollection());
+        verify(geoReferenceRepository, times(1)).findRegions(anyCollection());
+        verify(geoReferenceRepository, times(1)).findCities(anyCollection());
+
+        nothingElseMatters();
+    }
+
+    @Test
+    public void queriesAreScopedByParents() throws Exception {
+        LocationQuery query = new LocationQuery("تهران", "تهران", "منطقه 1", "مرکزی");
+
+        geoService.guessLocations(Collections.singletonList(query));
+
+        verify(geoService, times(1)).guessLocations(anyCollection());
+
+        //each level is asked for the whole tuple, never for the bare name
+        verify(geoReferenceRepository, times(1)).findDistricts(Collections.singletonList(query));
+        verify(geoReferenceRepository, times(1)).findRegions(Collections.singletonList(new LocationQuery("تهران", "تهران", "منطقه 1", null)));
+        verify(geoReferenceRepository, times(1)).findCities(Collections.singletonList(new LocationQuery("تهران", "تهران", null, null)));
+
+        nothingElseMatters();
+    }
+
+    @Test
+    public void nullQuery() throws Exception {
+        LatLng tehranCenter = new LatLng(35.6922882927872D, 51.3862157380208D);
+
+        List<LatLng> result = geoService.guessLocations(Arrays.asList(null, new LocationQuery(null, null, null, null)));
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0)).isEqualToComparingFieldByField(tehranCenter);
+        assertThat(result.get(1)).isEqualToComparingFieldByField(tehranCenter);
+
+        verify(geoService, times(1)).guessLocations(anyCollection());
+        verify(geoReferenceRepository, never()).findCities(anyCollection());
+
+        nothingElseMatters();
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link Gazetteer} built from entities, each level is a {@link HashMap} on the canonical key of its names.
+ */
+final class HashGazetteer implements Gazetteer {
+
+    private final Map<String, Place> cities;
+    private final Map<String, Place> regions;
+    private final Map<String, Place> districts;
+
+    private HashGazetteer(Map<String, Place> cities, Map<String, Place> regions, Map<String, Place> districts) {
+        this.cities = cities;
+        this.regions = regions;
+        this.districts = districts;
+    }
+
+    static HashGazetteer build(Iterable<City> cities, Iterable<Region> regions, Iterable<District> districts) {
+        Map<String, Place> cityIndex = new HashMap<>();
+        for (City c : cities) {
+            index(cityIndex, new LocationQuery(c.getProvince(), c.getCity(), null, null), c.getId(), c.getCenter());
+        }
+        Map<String, Place> regionIndex = new HashMap<>();
+        for (Region r : regions) {
+            index(regionIndex, new LocationQuery(r.getProvince(), r.getCity(), r.getName(), null), r.getId(), r.getCenter());
+        }
+        Map<String, Place> districtIndex = new HashMap<>();
+        for (District d : districts) {
+            index(districtIndex, new LocationQuery(d.getProvince(), d.getCity(), d.getRegion(), d.getName()), d.getId(), d.getCenter());
+        }
+        return new HashGazetteer(Collections.unmodifiableMap(cityIndex), Collections.unmodifiableMap(regionIndex),
+                Collections.unmodifiableMap(districtIndex));
+    }
+
+    private static void index(Map<String, Place> index, LocationQuery location, String id, LatLng center) {
+        String key = Gazetteer.key(Gazetteer.normalize(location.getProvince(), location.getCity(), location.getRegion(),
+                location.getDistrict()));
+        if (key != null) {
+            index.putIfAbsent(key, new Place(id, center, location));
+        }
+    }
+
+    @Override
+    public Place findCity(LocationQuery normalized) {
+        return find(cities, normalized.toCity());
+    }
+
+    @Override
+    public Place findRegion(LocationQuery normalized) {
+        return normalized.getRegion() == null ? null : find(regions, normalized.toRegion());
+    }
+
+    @Override
+    public Place findDistrict(LocationQuery normalized) {
+        return normalized.getRegion() == null || normalized.getDistrict() == null ? null : find(districts, normalized);
+    }
+
+    @Override
+    public void accept(Visitor visitor) {
+        cities.values().forEach(c -> visitor.city(c.getLocation().getProvince(), c.getLocation().getCity(), c));
+        regions.values().forEach(r -> visitor.region(r.getLocation().getProvince(), r.getLocation().getCity(),
+                r.getLocation().getRegion(), r));
+        districts.values().forEach(d -> visitor.district(d.getLocation().getProvince(), d.getLocation().getCity(),
+                d.getLocation().getRegion(), d.getLocation().getDistrict(), d));
+    }
+
+    private static Place find(Map<String, Place> index, LocationQuery normalized) {
+        String key = Gazetteer.key(normalized);
+        return key == null ? null : index.get(key);
+    }
+}
@@ -0,0 +1,175 @@
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * consistency of a submitted location with its province and city, checked against bounding boxes of the
+ * city, region and district centers of each city and province, widened by a margin.
+ * boxes are rebuilt from every new {@link Gazetteer} snapshot, so a check is two hash probes and four comparisons,
+ * places missing from the snapshot (or geo.lookup-mode=REPOSITORY) are never rejected, neither is a place whose box
+ * would come from a single center: its real extent is unknown, a city falls back to its province, a province is unknown.
+ * address.location-check{result} counts the outcomes.
+ */
+@Component
+public class LocationBounds {
+
+    private static final double KM_PER_DEGREE = 111.32D;
+
+    public enum Result {
+        /**
+         * inside the bounds of the city, or of the province if the city is unknown or has a single center
+         */
+        OK,
+        /**
+         * neither city nor province is known
+         */
+        UNKNOWN,
+        /**
+         * outside the bounds, but inside them with lat and lng swapped
+         */
+        SWAPPED,
+        OUT_OF_BOUNDS
+    }
+
+    @Value("${address.location-check.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${address.location-check.city-margin-km:25}")
+    private double cityMarginKm = 25;
+
+    @Value("${address.location-check.province-margin-km:50}")
+    private double provinceMarginKm = 50;
+
+    private final Map<Result, Counter> results = new EnumMap<>(Result.class);
+
+    private volatile Boxes boxes = new Boxes(Collections.emptyMap(), Collections.emptyMap());
+
+    public LocationBounds(MeterRegistry meterRegistry) {
+        for (Result result : Result.values()) {
+            results.put(result, Counter.builder("address.location-check")
+                    .description("submitted address locations by consistency with their province and city")
+                    .tag("result", result.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @EventListener
+    public void onGazetteerReloaded(GazetteerReloadedEvent event) {
+        Map<String, Box> cities = new HashMap<>();
+        Map<String, Box> provinces = new HashMap<>();
+        event.getGazetteer().accept(new Gazetteer.Visitor() {
+            @Override
+            public void city(String province, String city, Gazetteer.Place place) {
+                add(province, city, place);
+            }
+
+            @Override
+            public void region(String province, String city, String region, Gazetteer.Place place) {
+                add(province, city, place);
+            }
+
+            @Override
+            public void district(String province, String city, String region, String district, Gazetteer.Place place) {
+                add(province, city, place);
+            }
+
+            private void add(String province, String city, Gazetteer.Place place) {
+                LatLng center = place.getCenter();
+                String cityKey = cityKey(province, city);
+                if (center == null || cityKey == null) {
+                    return;
+                }
+                cities.computeIfAbsent(cityKey, k -> new Box()).add(center);
+                provinces.computeIfAbsent(provinceKey(province), k -> new Box()).add(center);
+            }
+        });
+        //a single center says nothing about the extent of the place
+        cities.values().removeIf(b -> b.count < 2);
+        provinces.values().removeIf(b -> b.count < 2);
+        cities.values().forEach(b -> b.widen(cityMarginKm));
+        provinces.values().forEach(b -> b.widen(provinceMarginKm));
+        boxes = new Boxes(cities, provinces);
+    }
+
+    public Result check(String province, String city, LatLng location) {
+        Result result = enabled && location != null ? check(boxes, province, city, location) : Result.UNKNOWN;
+        results.get(result).increment();
+        return result;
+    }
+
+    private static Result check(Boxes current, String province, String city, LatLng location) {
+        String cityKey = cityKey(province, city);
+        Box box = cityKey == null ? null : current.cities.get(cityKey);
+        if (box == null && province != null) {
+            box = current.provinces.get(provinceKey(province));
+        }
+        if (box == null) {
+            return Result.UNKNOWN;
+        }
+        if (box.contains(location.getLat(), location.getLng())) {
+            return Result.OK;
+        }
+        return box.contains(location.getLng(), location.getLat()) ? Result.SWAPPED : Result.OUT_OF_BOUNDS;
+    }
+
+    private static String cityKey(String province, String city) {
+        return Gazetteer.key(Gazetteer.normalize(province, city, null, null));
+    }
+
+    private static String provinceKey(String province) {
+        return PersianNormalizer.normalize(province);
+    }
+
+    private static final class Box {
+
+        private double minLat = Double.POSITIVE_INFINITY;
+        private double maxLat = Double.NEGATIVE_INFINITY;
+        private double minLng = Double.POSITIVE_INFINITY;
+        private double maxLng = Double.NEGATIVE_INFINITY;
+        private int count;
+
+        void add(LatLng point) {
+            count++;
+            minLat = Math.min(minLat, point.getLat());
+            maxLat = Math.max(maxLat, point.getLat());
+            minLng = Math.min(minLng, point.getLng());
+            maxLng = Math.max(maxLng, point.getLng());
+        }
+
+        /**
+         * a degree of longitude is shortest at the latitude farthest from the equator, the margin holds there too
+         */
+        void widen(double marginKm) {
+            double latMargin = marginKm / KM_PER_DEGREE;
+            double cos = Math.cos(Math.toRadians(Math.min(89D, Math.max(Math.abs(minLat), Math.abs(maxLat)))));
+            double lngMargin = marginKm / (KM_PER_DEGREE * cos);
+            minLat -= latMargin;
+            maxLat += latMargin;
+            minLng -= lngMargin;
+            maxLng += lngMargin;
+        }
+
+        boolean contains(double lat, double lng) {
+            return lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng;
+        }
+    }
+
+    private static final class Boxes {
+
+        private final Map<String, Box> cities;
+        private final Map<String, Box> provinces;
+
+        Boxes(Map<String, Box> cities, Map<String, Box> provinces) {
+            this.cities = cities;
+            this.provinces = provinces;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocationBoundsTest {
+
+    private LocationBounds locationBounds;
+
+    @Before
+    public void setUp() throws Exception {
+        City tehran = CityTestHelper.createRandomValidCity();
+        tehran.setProvince("تهران");
+        tehran.setCity("تهران");
+        tehran.setCenter(new LatLng(35.6892D, 51.3890D));
+        City shemiranat = CityTestHelper.createRandomValidCity();
+        shemiranat.setProvince("تهران");
+        shemiranat.setCity("شمیرانات");
+        shemiranat.setCenter(new LatLng(35.8100D, 51.5500D));
+        Region region = RegionTestHelper.createRandomValidRegion();
+        region.setProvince("تهران");
+        region.setCity("تهران");
+        region.setName("منطقه 22");
+        region.setCenter(new LatLng(35.7450D, 51.1800D));
+        //the only place of its province
+        City karaj = CityTestHelper.createRandomValidCity();
+        karaj.setProvince("البرز");
+        karaj.setCity("کرج");
+        karaj.setCenter(new LatLng(35.8400D, 50.9391D));
+
+        locationBounds = new LocationBounds(new SimpleMeterRegistry());
+        locationBounds.onGazetteerReloaded(new GazetteerReloadedEvent(Gazetteer.build(Arrays.asList(tehran, shemiranat, karaj),
+                Collections.singletonList(region), Collections.emptyList())));
+    }
+
+    @Test
+    public void insideCity() throws Exception {
+        assertThat(locationBounds.check("تهران", "تهران", new LatLng(35.7000D, 51.4000D))).isEqualTo(LocationBounds.Result.OK);
+        //region centers widen the city
+        assertThat(locationBounds.check("تهران", "تهران", new LatLng(35.7450D, 50.9500D))).isEqualTo(LocationBounds.Result.OK);
+    }
+
+    @Test
+    public void swapped() throws Exception {
+        assertThat(locationBounds.check("تهران", "تهران", new LatLng(51.4000D, 35.7000D))).isEqualTo(LocationBounds.Result.SWAPPED);
+    }
+
+    @Test
+    public void farFromCity() throws Exception {
+        //isfahan
+        assertThat(locationBounds.check("تهران", "تهران", new LatLng(32.6546D, 51.6680D))).isEqualTo(LocationBounds.Result.OUT_OF_BOUNDS);
+    }
+
+    @Test
+    public void unknownCityFallsBackToProvince() throws Exception {
+        assertThat(locationBounds.check("تهران", "ورامین", new LatLng(35.3240D, 51.6460D))).isEqualTo(LocationBounds.Result.OK);
+        assertThat(locationBounds.check("تهران", "ورامین", new LatLng(32.6546D, 51.6680D))).isEqualTo(LocationBounds.Result.OUT_OF_BOUNDS);
+    }
+
+    @Test
+    public void unknownPlaces() throws Exception {
+        assertThat(locationBounds.check("فارس", "شیراز", new LatLng(51.4000D, 35.7000D))).isEqualTo(LocationBounds.Result.UNKNOWN);
+        assertThat(locationBounds.check(null, null, new LatLng(35.7000D, 51.4000D))).isEqualTo(LocationBounds.Result.UNKNOWN);
+    }
+
+    @Test
+    public void singleCenterCityFallsBackToProvince() throws Exception {
+        //about 36 km from the only center of shemiranat, inside the province
+        assertThat(locationBounds.check("تهران", "شمیرانات", new LatLng(35.8100D, 51.9500D))).isEqualTo(LocationBounds.Result.OK);
+        assertThat(locationBounds.check("تهران", "شمیرانات", new LatLng(32.6546D, 51.6680D))).isEqualTo(LocationBounds.Result.OUT_OF_BOUNDS);
+    }
+
+    @Test
+    public void singleCenterProvinceIsUnknown() throws Exception {
+        assertThat(locationBounds.check("البرز", "کرج", new LatLng(36.2000D, 50.5000D))).isEqualTo(LocationBounds.Result.UNKNOWN);
+    }
+
+    @Test
+    public void spellingVariants() throws Exception {
+        //arabic yeh in the city name
+        assertThat(locationBounds.check("تهران", "شميرانات", new LatLng(35.8100D, 51.5500D))).isEqualTo(LocationBounds.Result.OK);
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.Objects;
+
+/**
+ * (province, city, region, district) tuple accepted by {@link GeoService#guessLocations}.
+ * it is also used as the lookup key of each fallback level, so equal tuples are resolved once.
+ */
+public final class LocationQuery {
+
+    private final String province;
+    private final String city;
+    private final String region;
+    private final String district;
+
+    public LocationQuery(String province, String city, String region, String district) {
+        this.province = province;
+        this.city = city;
+        this.region = region;
+        this.district = district;
+    }
+
+    public String getProvince() {
+        return province;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    /**
+     * @return key of the region level of this query
+     */
+    LocationQuery toRegion() {
+        return new LocationQuery(province, city, region, null);
+    }
+
+    /**
+     * @return key of the city level of this query
+     */
+    LocationQuery toCity() {
+        return new LocationQuery(province, city, null, null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LocationQuery that = (LocationQuery) o;
+        return Objects.equals(province, that.province) &&
+                Objects.equals(city, that.city) &&
+                Objects.equals(region, that.region) &&
+                Objects.equals(district, that.district);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(province, city, region, district);
+    }
+
+    @Override
+    public String toString() {
+        return "LocationQuery{" +
+                "province='" + province + '\'' +
+                ", city='" + city + '\'' +
+                ", region='" + region + '\'' +
+                ", district='" + district + '\'' +
+                '}';
+    }
+}
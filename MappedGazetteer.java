@@ -0,0 +1,234 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link Gazetteer} read in place from a memory mapped {@link GazetteerSnapshot} file.
+ * opening it checks the header (format and normalizer version) and every entry (string offsets and lengths inside the file, keys sorted),
+ * so a damaged file is rejected there and lookups never read outside the mapping.
+ * each lookup is a binary search comparing the probe with the key bytes in place, only a hit decodes its id
+ * and center (names are decoded on {@link Place#getLocation()}). pages are faulted in by the os on first use.
+ * the mapping is shared and never written, so readers need no locking (only absolute reads are used on the buffer).
+ */
+public final class MappedGazetteer implements Gazetteer {
+
+    private static final int KEY = 0;
+    private static final int ID = 4;
+    private static final int PROVINCE = 8;
+    private static final int CITY = 12;
+    private static final int REGION = 16;
+    private static final int DISTRICT = 20;
+    private static final int LAT = 24;
+    private static final int LNG = 32;
+
+    private final ByteBuffer buffer;
+    private final long createdAt;
+    private final int cityStart;
+    private final int cityCount;
+    private final int regionStart;
+    private final int regionCount;
+    private final int districtStart;
+    private final int districtCount;
+
+    private MappedGazetteer(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < GazetteerSnapshot.HEADER_SIZE || buffer.getInt(0) != GazetteerSnapshot.MAGIC) {
+            throw new IOException("not a gazetteer snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != GazetteerSnapshot.VERSION) {
+            throw new IOException("unsupported gazetteer snapshot version " + version);
+        }
+        int normalizer = buffer.getInt(8);
+        if (normalizer != PersianNormalizer.VERSION) {
+            //keys were normalized by other rules, lookups would silently miss
+            throw new IOException("gazetteer snapshot keys are of normalizer version " + normalizer
+                    + ", expected " + PersianNormalizer.VERSION);
+        }
+        this.buffer = buffer;
+        this.createdAt = buffer.getLong(12);
+        this.cityCount = buffer.getInt(20);
+        this.regionCount = buffer.getInt(24);
+        this.districtCount = buffer.getInt(28);
+        int stringsOffset = buffer.getInt(32);
+        if (cityCount < 0 || regionCount < 0 || districtCount < 0
+                || stringsOffset != GazetteerSnapshot.HEADER_SIZE
+                + ((long) cityCount + regionCount + districtCount) * GazetteerSnapshot.ENTRY_SIZE
+                || stringsOffset > buffer.capacity()) {
+            throw new IOException("truncated gazetteer snapshot");
+        }
+        this.cityStart = GazetteerSnapshot.HEADER_SIZE;
+        this.regionStart = cityStart + cityCount * GazetteerSnapshot.ENTRY_SIZE;
+        this.districtStart = regionStart + regionCount * GazetteerSnapshot.ENTRY_SIZE;
+
+        validate(cityStart, cityCount, stringsOffset, PROVINCE, CITY);
+        validate(regionStart, regionCount, stringsOffset, PROVINCE, CITY, REGION);
+        validate(districtStart, districtCount, stringsOffset, PROVINCE, CITY, REGION, DISTRICT);
+    }
+
+    public static MappedGazetteer open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            //the mapping stays valid after the channel is closed
+            return new MappedGazetteer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return epoch millis the snapshot was written at
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public Place findCity(LocationQuery normalized) {
+        return find(cityStart, cityCount, normalized.toCity());
+    }
+
+    @Override
+    public Place findRegion(LocationQuery normalized) {
+        return normalized.getRegion() == null ? null : find(regionStart, regionCount, normalized.toRegion());
+    }
+
+    @Override
+    public Place findDistrict(LocationQuery normalized) {
+        return normalized.getRegion() == null || normalized.getDistrict() == null ? null
+                : find(districtStart, districtCount, normalized);
+    }
+
+    @Override
+    public void accept(Visitor visitor) {
+        for (int i = 0; i < cityCount; i++) {
+            int entry = cityStart + i * GazetteerSnapshot.ENTRY_SIZE;
+            LocationQuery c = location(entry);
+            visitor.city(c.getProvince(), c.getCity(), place(entry));
+        }
+        for (int i = 0; i < regionCount; i++) {
+            int entry = regionStart + i * GazetteerSnapshot.ENTRY_SIZE;
+            LocationQuery r = location(entry);
+            visitor.region(r.getProvince(), r.getCity(), r.getRegion(), place(entry));
+        }
+        for (int i = 0; i < districtCount; i++) {
+            int entry = districtStart + i * GazetteerSnapshot.ENTRY_SIZE;
+            LocationQuery d = location(entry);
+            visitor.district(d.getProvince(), d.getCity(), d.getRegion(), d.getDistrict(), place(entry));
+        }
+    }
+
+    /**
+     * every string of an entry has to lie inside the file, key, id and the given names must be present
+     * and keys must be strictly ascending for the binary search
+     */
+    private void validate(int start, int count, int stringsOffset, int... required) throws IOException {
+        int previousKey = GazetteerSnapshot.NULL;
+        for (int i = 0; i < count; i++) {
+            int entry = start + i * GazetteerSnapshot.ENTRY_SIZE;
+            for (int field = KEY; field <= DISTRICT; field += 4) {
+                int offset = buffer.getInt(entry + field);
+                if (offset == GazetteerSnapshot.NULL) {
+                    if (field == KEY || field == ID || contains(required, field)) {
+                        throw new IOException("corrupt gazetteer snapshot, entry at " + entry
+                                + " misses a required string");
+                    }
+                } else if (offset < stringsOffset || offset > buffer.capacity() - 4
+                        || buffer.getInt(offset) < 0 || (long) offset + 4 + buffer.getInt(offset) > buffer.capacity()) {
+                    throw new IOException("corrupt gazetteer snapshot, entry at " + entry + " points outside the file");
+                }
+            }
+            int key = buffer.getInt(entry + KEY);
+            if (previousKey != GazetteerSnapshot.NULL && compare(previousKey, key) >= 0) {
+                throw new IOException("corrupt gazetteer snapshot, entry at " + entry + " is out of order");
+            }
+            previousKey = key;
+        }
+    }
+
+    private static boolean contains(int[] fields, int field) {
+        for (int f : fields) {
+            if (f == field) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Place find(int start, int count, LocationQuery normalized) {
+        String key = Gazetteer.key(normalized);
+        if (key == null) {
+            return null;
+        }
+        byte[] probe = key.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = start + mid * GazetteerSnapshot.ENTRY_SIZE;
+            int cmp = compare(buffer.getInt(entry + KEY), probe);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return place(entry);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * unsigned comparison of the string at offset with probe, same order the snapshot was sorted in
+     */
+    private int compare(int offset, byte[] probe) {
+        int length = buffer.getInt(offset);
+        int n = Math.min(length, probe.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(buffer.get(offset + 4 + i) & 0xFF, probe[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, probe.length);
+    }
+
+    /**
+     * unsigned comparison of the strings at two offsets
+     */
+    private int compare(int offset, int other) {
+        int length = buffer.getInt(offset);
+        int otherLength = buffer.getInt(other);
+        int n = Math.min(length, otherLength);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(buffer.get(offset + 4 + i) & 0xFF, buffer.get(other + 4 + i) & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, otherLength);
+    }
+
+    private Place place(int entry) {
+        double lat = buffer.getDouble(entry + LAT);
+        double lng = buffer.getDouble(entry + LNG);
+        return new Place(string(buffer.getInt(entry + ID)), Double.isNaN(lat) ? null : new LatLng(lat, lng),
+                () -> location(entry));
+    }
+
+    private LocationQuery location(int entry) {
+        return new LocationQuery(string(buffer.getInt(entry + PROVINCE)), string(buffer.getInt(entry + CITY)),
+                string(buffer.getInt(entry + REGION)), string(buffer.getInt(entry + DISTRICT)));
+    }
+
+    private String string(int offset) {
+        if (offset == GazetteerSnapshot.NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        //a positioned duplicate, absolute bulk gets need java 13
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + 4);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * canonical form of persian names used as lookup keys, so spelling variants of the same name produce the same key:
+ * <ul>
+ * <li>arabic yeh and alef maksura become persian yeh, arabic kaf becomes persian kaf</li>
+ * <li>arabic-indic and persian digits become ascii digits</li>
+ * <li>diacritics and tatweel are removed</li>
+ * <li>zero width non joiner and any run of white spaces become a single space, leading and trailing ones are removed</li>
+ * </ul>
+ * keys are only compared with each other, they are never shown to users.
+ */
+public final class PersianNormalizer {
+
+    /**
+     * version of the rules above, bump it on any change of them: keys stored by another version (in a
+     * {@link GazetteerSnapshot}) wouldn't match the probes normalized by this one
+     */
+    public static final int VERSION = 1;
+
+    private PersianNormalizer() {
+    }
+
+    /**
+     * @return canonical form of value or null if value is null
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        int length = value.length();
+        StringBuilder builder = new StringBuilder(length);
+        boolean pendingSpace = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (isSeparator(c)) {
+                pendingSpace = builder.length() > 0;
+                continue;
+            }
+            if (isIgnorable(c)) {
+                continue;
+            }
+            if (pendingSpace) {
+                builder.append(' ');
+                pendingSpace = false;
+            }
+            builder.append(canonical(c));
+        }
+        return value.contentEquals(builder) ? value : builder.toString();
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '\u200C' || Character.isWhitespace(c) || Character.isSpaceChar(c);
+    }
+
+    private static boolean isIgnorable(char c) {
+        //fathatan .. wavy hamza below, superscript alef, tatweel, zero width joiner
+        return (c >= '\u064B' && c <= '\u065F') || c == '\u0670' || c == '\u0640' || c == '\u200D';
+    }
+
+    private static char canonical(char c) {
+        switch (c) {
+            case '\u064A': //arabic yeh
+            case '\u0649': //alef maksura
+                return '\u06CC';
+            case '\u0643': //arabic kaf
+                return '\u06A9';
+            default:
+                if (c >= '\u06F0' && c <= '\u06F9') {
+                    return (char) ('0' + (c - '\u06F0'));
+                }
+                if (c >= '\u0660' && c <= '\u0669') {
+                    return (char) ('0' + (c - '\u0660'));
+                }
+                return c;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersianNormalizerTest {
+
+    @Test
+    public void nullAndEmpty() throws Exception {
+        assertThat(PersianNormalizer.normalize(null)).isNull();
+        assertThat(PersianNormalizer.normalize("")).isEmpty();
+        assertThat(PersianNormalizer.normalize(" \u200C ")).isEmpty();
+    }
+
+    @Test
+    public void unchanged() throws Exception {
+        String value = "تهران";
+
+        assertThat(PersianNormalizer.normalize(value)).isSameAs(value);
+    }
+
+    @Test
+    public void arabicLetters() throws Exception {
+        //arabic yeh, alef maksura and arabic kaf in "کرمانشاه" and "شیراز"
+        assertThat(PersianNormalizer.normalize("كرمانشاه")).isEqualTo("کرمانشاه");
+        assertThat(PersianNormalizer.normalize("شيراز")).isEqualTo("شیراز");
+        assertThat(PersianNormalizer.normalize("شىراز")).isEqualTo("شیراز");
+    }
+
+    @Test
+    public void spaces() throws Exception {
+        //"شهرک غرب" written with zwnj, double space, tab and surrounding spaces
+        String expected = "شهرک غرب";
+
+        assertThat(PersianNormalizer.normalize("شهرک\u200Cغرب")).isEqualTo(expected);
+        assertThat(PersianNormalizer.normalize("شهرک  غرب")).isEqualTo(expected);
+        assertThat(PersianNormalizer.normalize("شهرک\tغرب")).isEqualTo(expected);
+        assertThat(PersianNormalizer.normalize(" شهرک غرب\u200C ")).isEqualTo(expected);
+    }
+
+    @Test
+    public void diacriticsAndTatweel() throws Exception {
+        assertThat(PersianNormalizer.normalize("تَهْران")).isEqualTo("تهران");
+        assertThat(PersianNormalizer.normalize("تـهران")).isEqualTo("تهران");
+    }
+
+    @Test
+    public void digits() throws Exception {
+        assertThat(PersianNormalizer.normalize("منطقه ۱۲")).isEqualTo("منطقه 12");
+        assertThat(PersianNormalizer.normalize("منطقه ١٢")).isEqualTo("منطقه 12");
+        assertThat(PersianNormalizer.normalize("منطقه 12")).isEqualTo("منطقه 12");
+    }
+}
@@ -0,0 +1,56 @@
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * allocation free replacement of {@code @Pattern(regexp = RegExUtil.TEXT_FA_SMALL / TEXT_FA_LARGE)}.
+ * like {@code @Pattern} null is valid, pair it with {@code @NotNull} when the field is required.
+ * message has to be given per field, exactly as it is with {@code @Pattern}.
+ */
+@Documented
+@Constraint(validatedBy = PersianText.Validator.class)
+@Target({METHOD, FIELD, ANNOTATION_TYPE, CONSTRUCTOR, PARAMETER, TYPE_USE})
+@Retention(RUNTIME)
+public @interface PersianText {
+
+    enum Size {
+        SMALL(PersianTextValidator.SMALL_MAX_LENGTH),
+        LARGE(PersianTextValidator.LARGE_MAX_LENGTH);
+
+        private final int maxLength;
+
+        Size(int maxLength) {
+            this.maxLength = maxLength;
+        }
+    }
+
+    Size size();
+
+    String message();
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validator implements ConstraintValidator<PersianText, CharSequence> {
+
+        private int maxLength;
+
+        @Override
+        public void initialize(PersianText constraintAnnotation) {
+            maxLength = constraintAnnotation.size().maxLength;
+        }
+
+        @Override
+        public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+            return value == null || PersianTextValidator.isValid(value, maxLength);
+        }
+    }
+}
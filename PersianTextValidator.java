@@ -0,0 +1,74 @@
+/**
+ * table driven implementation of the {@link RegExUtil#TEXT_FA_SMALL} and {@link RegExUtil#TEXT_FA_LARGE} rules:
+ * persian letters, persian digits and punctuation, starting with a letter, at most 50 (small) or 200 (large) chars.
+ * <p>
+ * every char is classified with a single array lookup, no matcher or any other object is allocated.
+ * {@code PersianTextValidatorTest} checks it against the regexes, keep both in sync.
+ */
+public final class PersianTextValidator {
+
+    public static final int SMALL_MAX_LENGTH = 50;
+    public static final int LARGE_MAX_LENGTH = 200;
+
+    private static final byte NOT_ALLOWED = 0;
+    private static final byte LETTER = 1;
+    private static final byte ALLOWED = 2;
+
+    private static final byte[] CLASSES = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        //arabic letters used in persian (hamza .. ghain, feh .. yeh)
+        set(LETTER, 'ء', 'غ');
+        set(LETTER, 'ف', 'ي');
+        //persian specific letters
+        set(LETTER, 'پ', 'پ');
+        set(LETTER, 'چ', 'چ');
+        set(LETTER, 'ژ', 'ژ');
+        set(LETTER, 'ک', 'ک');
+        set(LETTER, 'گ', 'گ');
+        set(LETTER, 'ی', 'ی');
+
+        //persian digits
+        set(ALLOWED, '۰', '۹');
+        //white space and zero width non joiner
+        set(ALLOWED, ' ', ' ');
+        set(ALLOWED, '\u200C', '\u200C');
+        //punctuation
+        for (char c : ".,:;!?()-/\"'«»،؛؟".toCharArray()) {
+            set(ALLOWED, c, c);
+        }
+    }
+
+    private PersianTextValidator() {
+    }
+
+    private static void set(byte type, char from, char to) {
+        for (int c = from; c <= to; c++) {
+            CLASSES[c] = type;
+        }
+    }
+
+    public static boolean isValidSmall(CharSequence value) {
+        return isValid(value, SMALL_MAX_LENGTH);
+    }
+
+    public static boolean isValidLarge(CharSequence value) {
+        return isValid(value, LARGE_MAX_LENGTH);
+    }
+
+    /**
+     * @return true if value is not empty, starts with a letter, has only allowed chars and is at most maxLength long
+     */
+    public static boolean isValid(CharSequence value, int maxLength) {
+        int length = value.length();
+        if (length == 0 || length > maxLength || CLASSES[value.charAt(0)] != LETTER) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            if (CLASSES[value.charAt(i)] == NOT_ALLOWED) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * differential test of {@link PersianTextValidator} against the {@link RegExUtil} patterns it replaces
+ */
+public class PersianTextValidatorTest {
+
+    private static final Pattern TEXT_FA_SMALL = Pattern.compile(RegExUtil.TEXT_FA_SMALL);
+    private static final Pattern TEXT_FA_LARGE = Pattern.compile(RegExUtil.TEXT_FA_LARGE);
+
+    //persian and arabic letters, persian and latin digits, latin letters, white spaces, punctuation and symbols
+    private static final String ALPHABET = "ابپتثجچحخدذرزژسشصضطظعغفقکگلمنوهیآأؤئءةيكۀ"
+            + "۰۱۲۳۴۵۶۷۸۹٠١٢٣0123456789"
+            + "abcXYZ"
+            + " \t\n\u200C\u200D\u00A0"
+            + ".,:;!?()-/\"'«»،؛؟_[]{}@#$%^&*+=<>|\\~`"
+            + "\u064B\u064E\u0640";
+
+    //persian text, random strings of it exercise the length limits
+    private static final String PERSIAN = "ابپتثجچحخدذرزژسشصضطظعغفقکگلمنوهی۰۱۲۳۴۵۶۷۸۹ ،.-";
+
+    @Test
+    public void sameAsRegEx() throws Exception {
+        Random random = new Random(20161018);
+        for (int i = 0; i < 200_000; i++) {
+            String value = randomText(random, ALPHABET, random.nextInt(PersianTextValidator.LARGE_MAX_LENGTH + 10));
+
+            assertThat(PersianTextValidator.isValidSmall(value))
+                    .as("small: [%s]", value)
+                    .isEqualTo(TEXT_FA_SMALL.matcher(value).matches());
+            assertThat(PersianTextValidator.isValidLarge(value))
+                    .as("large: [%s]", value)
+                    .isEqualTo(TEXT_FA_LARGE.matcher(value).matches());
+        }
+    }
+
+    @Test
+    public void mostlyValid() throws Exception {
+        //text made of the whole alphabet is almost always invalid, check mostly persian text too
+        Random random = new Random(20161019);
+        for (int i = 0; i < 200_000; i++) {
+            String value = randomText(random, PERSIAN, random.nextInt(PersianTextValidator.LARGE_MAX_LENGTH + 10));
+
+            assertThat(PersianTextValidator.isValidSmall(value))
+                    .as("small: [%s]", value)
+                    .isEqualTo(TEXT_FA_SMALL.matcher(value).matches());
+            assertThat(PersianTextValidator.isValidLarge(value))
+                    .as("large: [%s]", value)
+                    .isEqualTo(TEXT_FA_LARGE.matcher(value).matches());
+        }
+    }
+
+    @Test
+    public void samples() throws Exception {
+        String[] samples = {"", "a", "۱تهران", "تهران", "تهران، خیابان آزادی", "تهران ۱۲", "میدان‌آزادی",
+                "تهران-پلاک ۲/۱", " تهران", "تهرانa", repeat('ت', 50), repeat('ت', 51), repeat('ت', 200), repeat('ت', 201)};
+
+        for (String value : samples) {
+            assertThat(PersianTextValidator.isValidSmall(value))
+                    .as("small: [%s]", value)
+                    .isEqualTo(TEXT_FA_SMALL.matcher(value).matches());
+            assertThat(PersianTextValidator.isValidLarge(value))
+                    .as("large: [%s]", value)
+                    .isEqualTo(TEXT_FA_LARGE.matcher(value).matches());
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,112 @@
+import com.fasterxml.jackson.annotation.JsonView;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.validation.Valid;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * non-blocking variant of {@link AddressController}, enabled with address.api.reactive=true.
+ * same paths, same {@link ResultObject} contract and same {@link View.PUBLIC} output,
+ * but no thread waits for an address read (list, delta and their revalidation): addresses come from the shared cache of
+ * {@link CustomerAddressService}, loads missing from it are made with {@link ReactiveCustomerAddressRepository}.
+ * not everything is non-blocking yet:
+ * <ul>
+ * <li>POST blocks a thread of the address executor for its write, like the blocking api</li>
+ * <li>a customer without a document falls back to {@link CustomerService#loadCustomer} on boundedElastic</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/public/address")
+@ConditionalOnProperty(name = "address.api.reactive", havingValue = "true")
+public class ReactiveAddressController {
+
+    @Autowired
+    private CustomerAddressService customerAddressService;
+
+    @Autowired
+    private ReactiveCustomerAddressRepository reactiveCustomerAddressRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    @Qualifier("addressExecutor")
+    private ExecutorService addressExecutor;
+
+    @Autowired
+    private AddressDeadlines deadlines;
+
+    @Autowired
+    private AddressLocationCheck locationCheck;
+
+    @Autowired
+    private AddressControllerAdvice advice;
+
+    @RequestMapping(method = RequestMethod.GET)
+    public Mono<ResponseEntity<byte[]>> getAddresses(UserAuthentication authentication,
+                                                     @RequestParam(value = "since", required = false) String since,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (since != null) {
+            return Mono.fromSupplier(() -> getUserIdOrFail(authentication))
+                    .flatMap(this::loadAddresses)
+                    .map(addresses -> ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON_UTF8)
+                            .body(customerAddressService.delta(addresses, since)));
+        }
+        return Mono.fromSupplier(() -> getUserIdOrFail(authentication))
+                .flatMap(this::loadAddresses)
+                .map(addresses -> {
+                    if (addresses.etagMatches(ifNoneMatch)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(addresses.getEtag()).<byte[]>build();
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(addresses.getEtag())
+                            .contentType(MediaType.APPLICATION_JSON_UTF8)
+                            .body(customerAddressService.publicJson(addresses));
+                });
+    }
+
+    @JsonView(View.PUBLIC.class)
+    @RequestMapping(method = RequestMethod.POST)
+    public Mono<ResponseEntity<ResultObject>> addAddress(UserAuthentication authentication,
+                                                         @RequestParam(value = "primary", required = false, defaultValue = "false") boolean primary,
+                                                         @JsonView(View.CUSTOMER.REQUEST_BODY.ADDRESS.class) @Valid @RequestBody Address address) {
+        return Mono.fromSupplier(() -> getUserIdOrFail(authentication))
+                .flatMap(customerId -> {
+                    //only an authenticated request gets its location checked
+                    locationCheck.check(address);
+                    //writes are rare, they block on the address executor like the blocking api
+                    return Mono.fromFuture(deadlines.supplyAsync(AddressDeadlines.Endpoint.POST,
+                            () -> customerAddressService.addAddress(customerId, address, primary), addressExecutor));
+                })
+                .map(added -> ResponseEntity.ok(new ResultObject(advice.message("address.added", "آدرس جدید اضافه شد"), added.getId())))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new ResultObject(advice.message("error.service", "خطای سرویس"), null)));
+    }
+
+    private Mono<CustomerAddresses> loadAddresses(String customerId) {
+        //shares the cache and in-flight loads of the blocking api, only the load itself is reactive
+        return Mono.fromFuture(() -> customerAddressService.loadAddresses(customerId, id -> deadlines.within(AddressDeadlines.Endpoint.GET,
+                reactiveCustomerAddressRepository.findAddresses(id)
+                        //let customer service fail the same way it does for a missing customer, off the event loop as it blocks
+                        .switchIfEmpty(Mono.fromCallable(() -> CustomerAddressService.projectionOf(customerService.loadCustomer(id)))
+                                .subscribeOn(Schedulers.boundedElastic()))
+                        .toFuture()),
+                id -> deadlines.within(AddressDeadlines.Endpoint.GET, reactiveCustomerAddressRepository.findAddressVersion(id).toFuture())));
+    }
+}
@@ -0,0 +1,194 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * api path: /api/public/address
+ * method: GET and POST
+ * address.api.reactive=true
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = "address.api.reactive=true")
+@AutoConfigureMockMvc
+public class ReactiveAddressControllerTest {
+
+    private static final String API_PATH = "/api/public/address";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private TokenAuthenticationService tokenAuthenticationService;
+
+    @MockBean
+    private CustomerAddressService customerAddressService;
+
+    @MockBean
+    private ReactiveCustomerAddressRepository reactiveCustomerAddressRepository;
+
+    @MockBean
+    private LocationBounds locationBounds;
+
+    @After
+    public void tearDown() throws Exception {
+        verifyNoMoreInteractions(customerAddressService);
+    }
+
+    @Test
+    public void getAddresses() throws Exception {
+        Customer customer = customerWithAddress();
+        CustomerAddresses addresses = new CustomerAddresses(customer.getId(), customer.getAddresses(), "\"v1\"");
+        givenLoaded(customer, addresses);
+        given(customerAddressService.publicJson(eq(addresses)))
+                .willReturn(objectMapper.writerWithView(View.PUBLIC.class).writeValueAsBytes(new ResultObject(customer.getAddresses())));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_PATH)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(jsonPath("data[0].id").value(customer.getAddresses().get(0).getId()));
+
+        verify(customerAddressService, times(1)).loadAddresses(eq(customer.getId()), any(), any());
+        verify(customerAddressService, times(1)).publicJson(eq(addresses));
+    }
+
+    @Test
+    public void notModified() throws Exception {
+        Customer customer = customerWithAddress();
+        givenLoaded(customer, new CustomerAddresses(customer.getId(), customer.getAddresses(), "\"v1\""));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\"")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(content().string(""));
+
+        verify(customerAddressService, times(1)).loadAddresses(eq(customer.getId()), any(), any());
+    }
+
+    @Test
+    public void since() throws Exception {
+        Customer customer = customerWithAddress();
+        CustomerAddresses addresses = new CustomerAddresses(customer.getId(), customer.getAddresses(), "\"v1\"");
+        givenLoaded(customer, addresses);
+        given(customerAddressService.delta(eq(addresses), eq("-1"))).willReturn(objectMapper.writerWithView(View.PUBLIC.class)
+                .writeValueAsBytes(new ResultObject(new AddressDelta(addresses.getVersion(), true, customer.getAddresses(), null))));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_PATH)
+                .param("since", "-1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("data.full").value(true))
+                .andExpect(jsonPath("data.version").value(CustomerAddresses.UNCOUNTED));
+
+        //the delta is made from the reactively loaded list, nothing blocks on the address executor
+        verify(customerAddressService, times(1)).loadAddresses(eq(customer.getId()), any(), any());
+        verify(customerAddressService, times(1)).delta(eq(addresses), eq("-1"));
+    }
+
+    @Test
+    public void addAddress() throws Exception {
+        Customer customer = CustomerTestHelper.createRandomValidCustomer();
+        Address address = AddressTestHelper.createRandomValidAddress();
+
+        //mock security
+        given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
+        given(customerAddressService.addAddress(eq(customer.getId()), any(Address.class), eq(true))).willReturn(address);
+
+        MvcResult mvcResult = mockMvc.perform(post(API_PATH)
+                .content(objectMapper.writeValueAsString(address))
+                .param("primary", "true")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("message").value("آدرس جدید اضافه شد"))
+                .andExpect(jsonPath("data").value(address.getId()));
+
+        verify(customerAddressService, times(1)).addAddress(eq(customer.getId()), any(Address.class), eq(true));
+    }
+
+    @Test
+    public void addAddressConflict() throws Exception {
+        Customer customer = CustomerTestHelper.createRandomValidCustomer();
+        Address address = AddressTestHelper.createRandomValidAddress();
+
+        //mock security
+        given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
+        given(customerAddressService.addAddress(eq(customer.getId()), any(Address.class), eq(false))).willReturn(null);
+
+        MvcResult mvcResult = mockMvc.perform(post(API_PATH)
+                .content(objectMapper.writeValueAsString(address))
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("message").value("خطای سرویس"))
+                .andExpect(jsonPath("data").isEmpty());
+
+        verify(customerAddressService, times(1)).addAddress(eq(customer.getId()), any(Address.class), eq(false));
+    }
+
+    private Customer customerWithAddress() {
+        Customer customer = CustomerTestHelper.createRandomValidCustomer();
+        customer.setAddresses(new ArrayList<>());
+        customer.getAddresses().add(AddressTestHelper.createRandomValidAddress());
+
+        //mock security
+        given(tokenAuthenticationService.getAuthentication(any())).willReturn(mockAuth(customer, UserRole.CUSTOMER));
+        return customer;
+    }
+
+    private void givenLoaded(Customer customer, CustomerAddresses addresses) {
+        given(customerAddressService.loadAddresses(eq(customer.getId()), any(), any()))
+                .willReturn(CompletableFuture.completedFuture(addresses));
+    }
+}
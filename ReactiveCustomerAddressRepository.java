@@ -0,0 +1,48 @@
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * non-blocking counterpart of the reads of {@link CustomerAddressRepository},
+ * writes go through {@link CustomerService} like the blocking api.
+ * only created with address.api.reactive=true, the blocking api needs no reactive mongo driver.
+ */
+@Repository
+@ConditionalOnProperty(name = "address.api.reactive", havingValue = "true")
+public class ReactiveCustomerAddressRepository {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    /**
+     * @return addresses and their change version, empty if customer doesn't exist
+     */
+    public Mono<CustomerAddressProjection> findAddresses(String customerId) {
+        Query query = Query.query(Criteria.where("_id").is(customerId));
+        query.fields()
+                .include("addresses")
+                .include(CustomerAddressRepository.ADDRESS_EPOCH)
+                .include(CustomerAddressRepository.ADDRESS_VERSION)
+                .include(CustomerAddressRepository.ADDRESS_CHANGES);
+
+        return reactiveMongoTemplate.findOne(query, CustomerAddressProjection.class,
+                reactiveMongoTemplate.getCollectionName(Customer.class));
+    }
+
+    /**
+     * @return only the change version, empty if customer doesn't exist
+     */
+    public Mono<CustomerAddressProjection> findAddressVersion(String customerId) {
+        Query query = Query.query(Criteria.where("_id").is(customerId));
+        query.fields()
+                .include(CustomerAddressRepository.ADDRESS_EPOCH)
+                .include(CustomerAddressRepository.ADDRESS_VERSION);
+
+        return reactiveMongoTemplate.findOne(query, CustomerAddressProjection.class,
+                reactiveMongoTemplate.getCollectionName(Customer.class));
+    }
+}
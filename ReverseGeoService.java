@@ -0,0 +1,116 @@
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * reverse counterpart of {@link GeoService#guessLocation}: finds province, city, region and district of a location.
+ * nearest neighbour queries run on {@link SpatialIndex}es of district, region and city centers,
+ * which are rebuilt from every new {@link Gazetteer} snapshot (so it needs geo.lookup-mode=INDEX).
+ * regions and districts are also indexed per city, so {@link #locate} never answers with a place of a neighbouring city.
+ */
+@Service
+public class ReverseGeoService {
+
+    private volatile Indexes indexes = new Indexes(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+    @EventListener
+    public void onGazetteerReloaded(GazetteerReloadedEvent event) {
+        List<Located> cities = new ArrayList<>();
+        List<Located> regions = new ArrayList<>();
+        List<Located> districts = new ArrayList<>();
+        event.getGazetteer().accept(new Gazetteer.Visitor() {
+            @Override
+            public void city(String province, String city, Gazetteer.Place place) {
+                cities.add(new Located(new LocationQuery(province, city, null, null), place.getCenter()));
+            }
+
+            @Override
+            public void region(String province, String city, String region, Gazetteer.Place place) {
+                regions.add(new Located(new LocationQuery(province, city, region, null), place.getCenter()));
+            }
+
+            @Override
+            public void district(String province, String city, String region, String district, Gazetteer.Place place) {
+                districts.add(new Located(new LocationQuery(province, city, region, district), place.getCenter()));
+            }
+        });
+        indexes = new Indexes(cities, regions, districts);
+    }
+
+    /**
+     * the city is the one with the nearest center, within it the nearest district, else the nearest region.
+     * if no city is loaded it falls back to the nearest district, else the nearest region anywhere
+     *
+     * @return most specific known place nearest to location or null if nothing is loaded
+     */
+    public LocationQuery locate(LatLng location) {
+        Indexes current = indexes;
+        Located city = current.cities.nearest(location);
+        if (city == null) {
+            LocationQuery result = nearest(current.districts, location);
+            return result != null ? result : nearest(current.regions, location);
+        }
+        LocationQuery result = nearest(current.districtsByCity.get(city.query), location);
+        if (result == null) {
+            result = nearest(current.regionsByCity.get(city.query), location);
+        }
+        return result != null ? result : city.query;
+    }
+
+    public LocationQuery nearestDistrict(LatLng location) {
+        return nearest(indexes.districts, location);
+    }
+
+    public LocationQuery nearestRegion(LatLng location) {
+        return nearest(indexes.regions, location);
+    }
+
+    public LocationQuery nearestCity(LatLng location) {
+        return nearest(indexes.cities, location);
+    }
+
+    private static LocationQuery nearest(SpatialIndex<Located> index, LatLng location) {
+        Located located = index == null ? null : index.nearest(location);
+        return located == null ? null : located.query;
+    }
+
+    private static final class Located {
+
+        private final LocationQuery query;
+        private final LatLng center;
+
+        Located(LocationQuery query, LatLng center) {
+            this.query = query;
+            this.center = center;
+        }
+    }
+
+    private static final class Indexes {
+
+        private final SpatialIndex<Located> cities;
+        private final SpatialIndex<Located> regions;
+        private final SpatialIndex<Located> districts;
+        private final Map<LocationQuery, SpatialIndex<Located>> regionsByCity;
+        private final Map<LocationQuery, SpatialIndex<Located>> districtsByCity;
+
+        Indexes(List<Located> cities, List<Located> regions, List<Located> districts) {
+            this.cities = SpatialIndex.build(cities, l -> l.center);
+            this.regions = SpatialIndex.build(regions, l -> l.center);
+            this.districts = SpatialIndex.build(districts, l -> l.center);
+            this.regionsByCity = byCity(regions);
+            this.districtsByCity = byCity(districts);
+        }
+
+        private static Map<LocationQuery, SpatialIndex<Located>> byCity(List<Located> places) {
+            Map<LocationQuery, List<Located>> grouped = places.stream().collect(Collectors.groupingBy(l -> l.query.toCity()));
+            Map<LocationQuery, SpatialIndex<Located>> result = new HashMap<>(grouped.size() * 2);
+            grouped.forEach((city, located) -> result.put(city, SpatialIndex.build(located, l -> l.center)));
+            return result;
+        }
+    }
+}
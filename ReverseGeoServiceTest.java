@@ -0,0 +1,66 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReverseGeoServiceTest {
+
+    private ReverseGeoService reverseGeoService;
+
+    @Before
+    public void setUp() throws Exception {
+        City tehran = CityTestHelper.createRandomValidCity();
+        tehran.setProvince("تهران");
+        tehran.setCity("تهران");
+        tehran.setCenter(new LatLng(35.6892D, 51.3890D));
+        //karaj has no region or district records
+        City karaj = CityTestHelper.createRandomValidCity();
+        karaj.setProvince("البرز");
+        karaj.setCity("کرج");
+        karaj.setCenter(new LatLng(35.8400D, 50.9391D));
+        Region region = RegionTestHelper.createRandomValidRegion();
+        region.setProvince("تهران");
+        region.setCity("تهران");
+        region.setName("غرب");
+        region.setCenter(new LatLng(35.7200D, 51.3200D));
+        District district = DistrictTestHelper.createRandomValidDistrict();
+        district.setProvince("تهران");
+        district.setCity("تهران");
+        district.setRegion("غرب");
+        district.setName("چیتگر");
+        district.setCenter(new LatLng(35.7250D, 51.3000D));
+
+        reverseGeoService = new ReverseGeoService();
+        reverseGeoService.onGazetteerReloaded(new GazetteerReloadedEvent(Gazetteer.build(Arrays.asList(tehran, karaj),
+                Collections.singletonList(region), Collections.singletonList(district))));
+    }
+
+    @Test
+    public void nothingLoaded() throws Exception {
+        assertThat(new ReverseGeoService().locate(new LatLng(35.7000D, 51.4000D))).isNull();
+    }
+
+    @Test
+    public void districtOfTheNearestCity() throws Exception {
+        LocationQuery located = reverseGeoService.locate(new LatLng(35.7200D, 51.3100D));
+
+        assertThat(located.getCity()).isEqualTo("تهران");
+        assertThat(located.getRegion()).isEqualTo("غرب");
+        assertThat(located.getDistrict()).isEqualTo("چیتگر");
+    }
+
+    @Test
+    public void cityWithoutDistricts() throws Exception {
+        //the district of tehran is the nearest district, but karaj is the nearest city
+        LocationQuery located = reverseGeoService.locate(new LatLng(35.8300D, 50.9700D));
+
+        assertThat(located.getProvince()).isEqualTo("البرز");
+        assertThat(located.getCity()).isEqualTo("کرج");
+        assertThat(located.getRegion()).isNull();
+        assertThat(located.getDistrict()).isNull();
+        assertThat(reverseGeoService.nearestDistrict(new LatLng(35.8300D, 50.9700D)).getDistrict()).isEqualTo("چیتگر");
+    }
+}
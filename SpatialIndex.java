@@ -0,0 +1,129 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * immutable 3-d tree for nearest neighbour queries on the earth surface.
+ * points are stored as unit vectors, so the smallest euclidean (chord) distance is also the smallest great circle distance,
+ * no projection errors and no special handling of the antimeridian.
+ * the tree is implicit: the root of each range [from, to) sits at its middle index.
+ */
+public final class SpatialIndex<T> {
+
+    private final double[] coordinates;
+    private final Object[] values;
+
+    private SpatialIndex(double[] coordinates, Object[] values) {
+        this.coordinates = coordinates;
+        this.values = values;
+    }
+
+    /**
+     * @param location values with null location are skipped
+     */
+    public static <T> SpatialIndex<T> build(List<T> values, Function<T, LatLng> location) {
+        Point[] points = values.stream()
+                .filter(v -> location.apply(v) != null)
+                .map(v -> new Point(location.apply(v), v))
+                .toArray(Point[]::new);
+        sort(points, 0, points.length, 0);
+
+        double[] coordinates = new double[points.length * 3];
+        Object[] result = new Object[points.length];
+        for (int i = 0; i < points.length; i++) {
+            System.arraycopy(points[i].xyz, 0, coordinates, i * 3, 3);
+            result[i] = points[i].value;
+        }
+        return new SpatialIndex<>(coordinates, result);
+    }
+
+    private static void sort(Point[] points, int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        Arrays.sort(points, from, to, Comparator.comparingDouble(p -> p.xyz[axis]));
+        int middle = (from + to) >>> 1;
+        int next = (axis + 1) % 3;
+        sort(points, from, middle, next);
+        sort(points, middle + 1, to, next);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return value nearest to location or null if index is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T nearest(LatLng location) {
+        if (values.length == 0) {
+            return null;
+        }
+        double[] target = toUnitVector(location);
+        Search search = new Search(target);
+        search.visit(0, values.length, 0);
+        return (T) values[search.best];
+    }
+
+    private final class Search {
+
+        private final double[] target;
+        private int best = -1;
+        private double bestDistance = Double.POSITIVE_INFINITY;
+
+        Search(double[] target) {
+            this.target = target;
+        }
+
+        void visit(int from, int to, int axis) {
+            if (from >= to) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            int offset = middle * 3;
+
+            double dx = coordinates[offset] - target[0];
+            double dy = coordinates[offset + 1] - target[1];
+            double dz = coordinates[offset + 2] - target[2];
+            double distance = dx * dx + dy * dy + dz * dz;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = middle;
+            }
+
+            double diff = target[axis] - coordinates[offset + axis];
+            int next = (axis + 1) % 3;
+            if (diff < 0) {
+                visit(from, middle, next);
+                if (diff * diff < bestDistance) {
+                    visit(middle + 1, to, next);
+                }
+            } else {
+                visit(middle + 1, to, next);
+                if (diff * diff < bestDistance) {
+                    visit(from, middle, next);
+                }
+            }
+        }
+    }
+
+    private static double[] toUnitVector(LatLng location) {
+        double lat = Math.toRadians(location.getLat());
+        double lng = Math.toRadians(location.getLng());
+        double cosLat = Math.cos(lat);
+        return new double[]{cosLat * Math.cos(lng), cosLat * Math.sin(lng), Math.sin(lat)};
+    }
+
+    private static final class Point {
+
+        private final double[] xyz;
+        private final Object value;
+
+        Point(LatLng location, Object value) {
+            this.xyz = toUnitVector(location);
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpatialIndexTest {
+
+    @Test
+    public void empty() throws Exception {
+        SpatialIndex<LatLng> index = SpatialIndex.build(Collections.emptyList(), l -> l);
+
+        assertThat(index.size()).isEqualTo(0);
+        assertThat(index.nearest(new LatLng(35.69D, 51.38D))).isNull();
+    }
+
+    @Test
+    public void skipsPointsWithoutLocation() throws Exception {
+        List<LatLng> points = new ArrayList<>();
+        points.add(null);
+        points.add(new LatLng(35.69D, 51.38D));
+
+        SpatialIndex<LatLng> index = SpatialIndex.build(points, l -> l);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.nearest(new LatLng(29.59D, 52.58D))).isSameAs(points.get(1));
+    }
+
+    @Test
+    public void sameAsLinearScan() throws Exception {
+        Random random = new Random(20161018);
+        List<LatLng> points = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            points.add(randomLocation(random));
+        }
+        SpatialIndex<LatLng> index = SpatialIndex.build(points, l -> l);
+
+        for (int i = 0; i < 2000; i++) {
+            LatLng target = randomLocation(random);
+
+            LatLng expected = null;
+            double expectedDistance = Double.POSITIVE_INFINITY;
+            for (LatLng point : points) {
+                double distance = distance(point, target);
+                if (distance < expectedDistance) {
+                    expectedDistance = distance;
+                    expected = point;
+                }
+            }
+
+            assertThat(index.nearest(target)).isSameAs(expected);
+        }
+    }
+
+    /**
+     * iran bounding box
+     */
+    private static LatLng randomLocation(Random random) {
+        return new LatLng(25D + random.nextDouble() * 15D, 44D + random.nextDouble() * 19D);
+    }
+
+    /**
+     * haversine central angle
+     */
+    private static double distance(LatLng a, LatLng b) {
+        double dLat = Math.toRadians(b.getLat() - a.getLat());
+        double dLng = Math.toRadians(b.getLng() - a.getLng());
+        double h = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(a.getLat())) * Math.cos(Math.toRadians(b.getLat())) * Math.pow(Math.sin(dLng / 2), 2);
+        return 2 * Math.asin(Math.sqrt(h));
+    }
+}
@@ -0,0 +1,129 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * optional bounded cache of already verified tokens in front of {@link TokenAuthenticationService}.
+ * an entry never outlives the token's own exp claim nor security.token-cache.ttl,
+ * so a repeated token skips parsing and signature verification for at most that long.
+ * disabled by default (security.token-cache.enabled).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final String BEARER = "Bearer ";
+
+    @Autowired
+    private TokenAuthenticationService tokenAuthenticationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${security.token-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${security.token-cache.maximum-size:50000}")
+    private long maximumSize;
+
+    @Value("${security.token-cache.ttl:PT5M}")
+    private Duration ttl;
+
+    @Value("${security.token.header:Authorization}")
+    private String tokenHeader;
+
+    private Cache<String, Verified> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Verified>() {
+                    @Override
+                    public long expireAfterCreate(String key, Verified value, long currentTime) {
+                        return value.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Verified value, long currentTime, long currentDuration) {
+                        return value.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Verified value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public UserAuthentication getAuthentication(HttpServletRequest request) {
+        String token = enabled ? request.getHeader(tokenHeader) : null;
+        if (token == null || token.isEmpty()) {
+            return tokenAuthenticationService.getAuthentication(request);
+        }
+
+        Verified verified = cache.getIfPresent(token);
+        if (verified != null) {
+            return verified.authentication;
+        }
+
+        UserAuthentication authentication = tokenAuthenticationService.getAuthentication(request);
+        if (authentication != null) {
+            long ttlNanos = ttlNanos(token);
+            if (ttlNanos > 0) {
+                cache.put(token, new Verified(authentication, ttlNanos));
+            }
+        }
+        return authentication;
+    }
+
+    /**
+     * @return nanos until min(token exp, configured ttl), exp is read from the (already verified) jwt payload
+     */
+    private long ttlNanos(String token) {
+        long max = ttl.toNanos();
+
+        String jwt = token.startsWith(BEARER) ? token.substring(BEARER.length()) : token;
+        int start = jwt.indexOf('.');
+        int end = jwt.indexOf('.', start + 1);
+        if (start < 0 || end < 0) {
+            return max;
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(jwt.substring(start + 1, end));
+            JsonNode exp = objectMapper.readTree(new String(payload, StandardCharsets.UTF_8)).get("exp");
+            if (exp == null || !exp.canConvertToLong()) {
+                return max;
+            }
+            long remaining = TimeUnit.SECONDS.toNanos(exp.asLong()) - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+            return Math.min(max, remaining);
+        } catch (IOException | IllegalArgumentException e) {
+            return max;
+        }
+    }
+
+    private static final class Verified {
+
+        private final UserAuthentication authentication;
+        private final long ttlNanos;
+
+        Verified(UserAuthentication authentication, long ttlNanos) {
+            this.authentication = authentication;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import io.micrometer.core.instrument.Counter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * thread per task executor on virtual threads with an upper limit on concurrently running tasks.
+ * virtual threads are cheap but the database behind them is not, so tasks over the limit are rejected instead of queued.
+ * the virtual thread executor is looked up at runtime, so this class loads on older jdks and fails only when used.
+ */
+public class VirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate = newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final Counter rejected;
+
+    public VirtualThreadExecutor(int maxConcurrency, Counter rejected) {
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+        this.rejected = rejected;
+    }
+
+    /**
+     * @throws IllegalStateException if the running jdk has no virtual threads (before java 21)
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                            MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("address.executor.mode=VIRTUAL needs java 21 or later, running on java "
+                    + System.getProperty("java.version"), e);
+        } catch (Throwable e) {
+            throw new IllegalStateException("can't create the virtual thread executor", e);
+        }
+    }
+
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("address executor is full");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        delegate.shutdownNow();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}